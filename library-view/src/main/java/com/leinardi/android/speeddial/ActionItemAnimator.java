@@ -0,0 +1,234 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.DecelerateInterpolator;
+
+/**
+ * Property based version of the action item animations defined in {@code res/anim}, which are no longer loaded but
+ * kept for the apps referencing them. The duration is read once per instance, the interpolators are shared and every
+ * animated view keeps its own {@link ValueAnimator}, reused by all its following animations: once each view has been
+ * animated, opening and closing allocate nothing. The animated properties (alpha, scale and translation) are applied
+ * to the view's render node, without redrawing it.
+ * <p>
+ * A view gets a hardware layer only while it animates its alpha and only if it has overlapping rendering; the layer is
+ * released as soon as the animation ends or is canceled.
+ */
+final class ActionItemAnimator {
+    private static final float HIDDEN_SCALE = 0.5F;
+    private static final float FAB_HIDDEN_TRANSLATION = 0.3F;
+    private static final float LABEL_HIDDEN_TRANSLATION = 1F;
+    private static final TimeInterpolator FAB_INTERPOLATOR = new AccelerateDecelerateInterpolator();
+    private static final TimeInterpolator LABEL_INTERPOLATOR = new DecelerateInterpolator();
+    private final long mDuration;
+
+    ActionItemAnimator(Context context) {
+        mDuration = ResourceCache.getInteger(context, R.integer.sd_open_animation_duration);
+    }
+
+    long getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * Scales, fades and translates the view in, like {@code sd_scale_fade_and_translate_in}.
+     */
+    void enlarge(View view, long startDelay) {
+        enlarge(view, mDuration, startDelay);
+    }
+
+    /**
+     * Scales, fades and translates the view out, like {@code sd_scale_fade_and_translate_out}, then hides it.
+     */
+    void shrink(View view, long startDelay) {
+        shrink(view, mDuration, startDelay);
+    }
+
+    /**
+     * Same as {@link #enlarge(View, long)}, for callers without an instance.
+     */
+    static void enlarge(View view, long duration, long startDelay) {
+        view.setVisibility(View.VISIBLE);
+        getViewAnimation(view).start(HIDDEN_SCALE, 1F, 0F, 1F, FAB_HIDDEN_TRANSLATION, 0F, FAB_INTERPOLATOR,
+                duration, startDelay, false);
+    }
+
+    /**
+     * Same as {@link #shrink(View, long)}, for callers without an instance.
+     */
+    static void shrink(View view, long duration, long startDelay) {
+        view.setVisibility(View.VISIBLE);
+        getViewAnimation(view).start(1F, HIDDEN_SCALE, 1F, 0F, 0F, FAB_HIDDEN_TRANSLATION, FAB_INTERPOLATOR,
+                duration, startDelay, true);
+    }
+
+    /**
+     * Fades and translates the view in, like {@code sd_fade_and_translate_in}.
+     */
+    void fadeAndTranslateIn(View view, long startDelay) {
+        view.setVisibility(View.VISIBLE);
+        getViewAnimation(view).start(1F, 1F, 0F, 1F, LABEL_HIDDEN_TRANSLATION, 0F, LABEL_INTERPOLATOR,
+                mDuration, startDelay, false);
+    }
+
+    /**
+     * Applies the state of {@link #enlarge(View, long)} at the given progress, from 0 (hidden) to 1 (shown).
+     */
+    static void applyEnlargeProgress(View view, float progress) {
+        float fraction = FAB_INTERPOLATOR.getInterpolation(progress);
+        float scale = HIDDEN_SCALE + (1F - HIDDEN_SCALE) * fraction;
+        view.setScaleX(scale);
+        view.setScaleY(scale);
+        view.setAlpha(fraction);
+        view.setTranslationY(view.getHeight() * FAB_HIDDEN_TRANSLATION * (1F - fraction));
+    }
+
+    /**
+     * Applies the state of {@link #fadeAndTranslateIn(View, long)} at the given progress, from 0 (hidden) to 1
+     * (shown).
+     */
+    static void applyFadeAndTranslateProgress(View view, float progress) {
+        float fraction = LABEL_INTERPOLATOR.getInterpolation(progress);
+        view.setAlpha(fraction);
+        view.setTranslationY(view.getHeight() * LABEL_HIDDEN_TRANSLATION * (1F - fraction));
+    }
+
+    /**
+     * Applies a plain fade at the given progress, from 0 (hidden) to 1 (shown), for reduced motion.
+     */
+    static void applyFadeProgress(View view, float progress) {
+        view.setAlpha(progress);
+        view.setScaleX(1F);
+        view.setScaleY(1F);
+        view.setTranslationY(0F);
+    }
+
+    /**
+     * Cancels the animations of the view and restores the properties they change.
+     */
+    static void reset(View view) {
+        Object tag = view.getTag(R.id.sd_view_animation);
+        if (tag instanceof ViewAnimation) {
+            ((ViewAnimation) tag).mAnimator.cancel();
+        }
+        view.clearAnimation();
+        view.setAlpha(1F);
+        view.setScaleX(1F);
+        view.setScaleY(1F);
+        view.setTranslationY(0F);
+    }
+
+    private static ViewAnimation getViewAnimation(View view) {
+        Object tag = view.getTag(R.id.sd_view_animation);
+        if (tag instanceof ViewAnimation) {
+            return (ViewAnimation) tag;
+        }
+        ViewAnimation viewAnimation = new ViewAnimation(view);
+        view.setTag(R.id.sd_view_animation, viewAnimation);
+        return viewAnimation;
+    }
+
+    private static final class ViewAnimation extends AnimatorListenerAdapter
+            implements ValueAnimator.AnimatorUpdateListener {
+        private final View mView;
+        private final ValueAnimator mAnimator = ValueAnimator.ofFloat(0F, 1F);
+        private float mFromScale;
+        private float mToScale;
+        private float mFromAlpha;
+        private float mToAlpha;
+        private float mFromTranslation;
+        private float mToTranslation;
+        private boolean mHideOnEnd;
+        private boolean mCanceled;
+        private boolean mLayerEnabled;
+
+        ViewAnimation(View view) {
+            mView = view;
+            mAnimator.addUpdateListener(this);
+            mAnimator.addListener(this);
+        }
+
+        /**
+         * Starts the animation, applying the initial values immediately so that they are kept during the delay. The
+         * translations are fractions of the view height.
+         */
+        void start(float fromScale, float toScale, float fromAlpha, float toAlpha, float fromTranslation,
+                   float toTranslation, TimeInterpolator interpolator, long duration, long startDelay,
+                   boolean hideOnEnd) {
+            mAnimator.cancel();
+            mFromScale = fromScale;
+            mToScale = toScale;
+            mFromAlpha = fromAlpha;
+            mToAlpha = toAlpha;
+            mFromTranslation = fromTranslation;
+            mToTranslation = toTranslation;
+            mHideOnEnd = hideOnEnd;
+            mAnimator.setInterpolator(interpolator);
+            mAnimator.setDuration(duration);
+            mAnimator.setStartDelay(startDelay);
+            apply(0F);
+            mAnimator.start();
+        }
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            apply(animation.getAnimatedFraction());
+        }
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            mCanceled = false;
+            if (mFromAlpha != mToAlpha && UiUtils.hasOverlappingRendering(mView)
+                    && mView.getLayerType() == View.LAYER_TYPE_NONE) {
+                mLayerEnabled = true;
+                mView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            }
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animation) {
+            mCanceled = true;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (mLayerEnabled) {
+                mLayerEnabled = false;
+                mView.setLayerType(View.LAYER_TYPE_NONE, null);
+            }
+            if (mHideOnEnd && !mCanceled) {
+                mView.setVisibility(View.GONE);
+            }
+        }
+
+        private void apply(float fraction) {
+            float scale = mFromScale + (mToScale - mFromScale) * fraction;
+            mView.setScaleX(scale);
+            mView.setScaleY(scale);
+            mView.setAlpha(mFromAlpha + (mToAlpha - mFromAlpha) * fraction);
+            mView.setTranslationY(mView.getHeight() * (mFromTranslation + (mToTranslation - mFromTranslation)
+                    * fraction));
+        }
+    }
+}
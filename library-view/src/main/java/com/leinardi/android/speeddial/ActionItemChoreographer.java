@@ -0,0 +1,371 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.LinearInterpolator;
+
+import androidx.annotation.Nullable;
+
+import com.leinardi.android.speeddial.SpeedDialView.ActionItemProgressCurve;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives the open and close animations of all the action items from a single {@link ValueAnimator}. The animator runs
+ * the progress of the whole animation, from 0 (closed) to 1 (open) or back, and on every frame each action item gets
+ * its own progress from an {@link ActionItemProgressCurve}: staggering the action items costs no additional animator
+ * and no additional timing.
+ * <p>
+ * The progress can also be driven directly, for instance by a back gesture, with {@link #beginSeek(List, long, float,
+ * ActionItemProgressCurve)} and {@link #seek(float)}. Seeking allocates nothing.
+ * <p>
+ * A batch of changes is animated with {@link #startTransition(List, List, long, FabWithLabelViewPool)}: the added and
+ * the removed action items enter and exit together, from the same animator.
+ * <p>
+ * Like {@link ActionItemAnimator}, the animated views get a hardware layer only for the duration of the animation.
+ */
+final class ActionItemChoreographer extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener {
+    private final ValueAnimator mAnimator = ValueAnimator.ofFloat(0F, 1F);
+    private final ArrayList<FabWithLabelView> mViews = new ArrayList<>();
+    private final ArrayList<View> mLayerViews = new ArrayList<>();
+    private final ArrayList<FabWithLabelView> mExitingViews = new ArrayList<>();
+    private ActionItemProgressCurve mProgressCurve = SpeedDialView.STAGGERED_PROGRESS_CURVE;
+    private long mFullDuration;
+    private float mStagger;
+    private float mProgress;
+    private float mFromProgress;
+    private float mToProgress;
+    private float mSeekStartProgress;
+    private boolean mShow;
+    private boolean mCanceled;
+    private boolean mRetargeting;
+    private boolean mSeeking;
+    private boolean mFadeOnly;
+    private boolean mUseLayers = true;
+    private boolean mHideLabelShadows;
+    @Nullable
+    private Runnable mEndAction;
+    @Nullable
+    private FabWithLabelViewPool mExitPool;
+
+    ActionItemChoreographer() {
+        mAnimator.setInterpolator(new LinearInterpolator());
+        mAnimator.addUpdateListener(this);
+        mAnimator.addListener(this);
+    }
+
+    /**
+     * Animates the given action items.
+     *
+     * @param views         the views to animate, in the order they appear
+     * @param show          true to show the views, false to hide them and make them {@link View#GONE} at the end
+     * @param duration      duration of the whole animation
+     * @param stagger       fraction of the whole animation between the starts of two consecutive views
+     * @param progressCurve curve giving the progress of each view
+     * @param endAction     action to run when the animation ends without being canceled, or null
+     */
+    void start(List<FabWithLabelView> views, boolean show, long duration, float stagger,
+               ActionItemProgressCurve progressCurve, @Nullable Runnable endAction) {
+        cancel();
+        setViews(views, duration, stagger, progressCurve);
+        mShow = show;
+        mEndAction = endAction;
+        apply(show ? 0F : 1F);
+        animateTo(show ? 1F : 0F);
+    }
+
+    /**
+     * Animates the action items added and removed by a batch together. The entering views are shown like by an open
+     * without stagger, while the exiting views fade out and are then removed from their parent and put in the pool.
+     * If the animation is canceled, the entering views are shown at once and the exiting views are removed anyway.
+     *
+     * @param enteringViews the views to show
+     * @param exitingViews  the views to fade out and remove
+     * @param duration      duration of the animation
+     * @param pool          pool receiving the removed views
+     */
+    void startTransition(List<FabWithLabelView> enteringViews, List<FabWithLabelView> exitingViews, long duration,
+                         FabWithLabelViewPool pool) {
+        cancel();
+        setViews(enteringViews, duration, 0F, SpeedDialView.STAGGERED_PROGRESS_CURVE);
+        mExitingViews.addAll(exitingViews);
+        mExitPool = pool;
+        mShow = true;
+        mEndAction = null;
+        apply(0F);
+        animateTo(1F);
+    }
+
+    /**
+     * Reverses the running or seeking animation from its current progress, without restarting it. The stagger and the
+     * progress curve are kept, so that the action items don't jump.
+     *
+     * @param show      true to show the views, false to hide them
+     * @param endAction action to run when the animation ends without being canceled, or null
+     */
+    void reverse(boolean show, @Nullable Runnable endAction) {
+        mEndAction = endAction;
+        if (mSeeking || mShow != show) {
+            mSeeking = false;
+            mShow = show;
+            animateTo(show ? 1F : 0F);
+        }
+    }
+
+    /**
+     * Stops the animation and lets the progress be driven by {@link #seek(float)}, until {@link #reverse(boolean,
+     * Runnable)} animates it to one end. If an animation is running, its views are kept and seeking starts from its
+     * current progress, otherwise the given views are shown fully open.
+     *
+     * @param views         the views to seek, in the order they appear
+     * @param duration      duration of the whole animation, used when the seek is committed or canceled
+     * @param stagger       fraction of the whole animation between the starts of two consecutive views
+     * @param progressCurve curve giving the progress of each view
+     */
+    void beginSeek(List<FabWithLabelView> views, long duration, float stagger, ActionItemProgressCurve progressCurve) {
+        if (mSeeking) {
+            return;
+        }
+        if (mAnimator.isStarted()) {
+            mRetargeting = true;
+            mAnimator.cancel();
+            mRetargeting = false;
+        } else {
+            setViews(views, duration, stagger, progressCurve);
+            mCanceled = false;
+            enableLayers();
+            apply(1F);
+        }
+        mSeeking = true;
+        mShow = false;
+        mSeekStartProgress = mProgress;
+    }
+
+    /**
+     * Moves the views to the given fraction of the close, started by {@link #beginSeek(List, long, float,
+     * ActionItemProgressCurve)}.
+     *
+     * @param closeFraction from 0 (as it was when seeking began) to 1 (closed)
+     */
+    void seek(float closeFraction) {
+        if (mSeeking) {
+            apply(mSeekStartProgress * (1F - Math.max(0F, Math.min(1F, closeFraction))));
+        }
+    }
+
+    /**
+     * Sets whether the views are only faded, without scale and translation, by the next animations.
+     */
+    void setFadeOnly(boolean fadeOnly) {
+        mFadeOnly = fadeOnly;
+    }
+
+    /**
+     * Sets whether the views get a hardware layer during the next animations.
+     */
+    void setUseLayers(boolean useLayers) {
+        mUseLayers = useLayers;
+    }
+
+    /**
+     * Sets whether the shadows of the labels are hidden during the next animations. Only supported on Android 5.0 and
+     * higher, where the shadows come from the elevation.
+     */
+    void setHideLabelShadows(boolean hideLabelShadows) {
+        mHideLabelShadows = hideLabelShadows;
+    }
+
+    void cancel() {
+        if (mSeeking) {
+            mSeeking = false;
+            mCanceled = true;
+            finish();
+        } else {
+            mAnimator.cancel();
+        }
+    }
+
+    boolean isRunning() {
+        return mSeeking || mAnimator.isStarted();
+    }
+
+    boolean isSeeking() {
+        return mSeeking;
+    }
+
+    /**
+     * Returns the progress of the whole animation, from 0 (closed) to 1 (open), as of the last frame.
+     */
+    float getProgress() {
+        return mProgress;
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        apply(mFromProgress + (mToProgress - mFromProgress) * animation.getAnimatedFraction());
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        mCanceled = false;
+        enableLayers();
+    }
+
+    @Override
+    public void onAnimationCancel(Animator animation) {
+        mCanceled = true;
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        if (!mRetargeting) {
+            finish();
+        }
+    }
+
+    private void setViews(List<FabWithLabelView> views, long duration, float stagger,
+                          ActionItemProgressCurve progressCurve) {
+        mViews.clear();
+        for (int i = 0; i < views.size(); i++) {
+            FabWithLabelView view = views.get(i);
+            mViews.add(view);
+            view.getFab().setVisibility(View.VISIBLE);
+            if (view.isLabelEnabled()) {
+                View labelBackground = view.getLabelBackground();
+                labelBackground.setVisibility(View.VISIBLE);
+                if (mHideLabelShadows && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                    // Cancels the elevation without touching it, FabWithLabelView changes it
+                    labelBackground.setTranslationZ(-labelBackground.getElevation());
+                }
+            }
+        }
+        mFullDuration = duration;
+        mStagger = stagger;
+        mProgressCurve = progressCurve;
+    }
+
+    /**
+     * Animates the progress from its current value to the given one, in the part of the full duration it covers.
+     */
+    private void animateTo(float toProgress) {
+        if (mAnimator.isStarted()) {
+            mRetargeting = true;
+            mAnimator.cancel();
+            mRetargeting = false;
+        }
+        mFromProgress = mProgress;
+        mToProgress = toProgress;
+        mAnimator.setDuration((long) (mFullDuration * Math.abs(toProgress - mFromProgress)));
+        mAnimator.start();
+    }
+
+    private void finish() {
+        for (int i = 0; i < mLayerViews.size(); i++) {
+            mLayerViews.get(i).setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+        mLayerViews.clear();
+        FabWithLabelViewPool exitPool = mExitPool;
+        if (exitPool != null) {
+            mExitPool = null;
+            if (mCanceled) {
+                apply(1F);
+            }
+            for (int i = 0; i < mExitingViews.size(); i++) {
+                FabWithLabelView view = mExitingViews.get(i);
+                ViewGroup parent = (ViewGroup) view.getParent();
+                if (parent != null) {
+                    parent.removeView(view);
+                }
+                exitPool.putRecycledView(view);
+            }
+            mExitingViews.clear();
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            // The flag may have changed since the start, so restore any hidden shadow
+            for (int i = 0; i < mViews.size(); i++) {
+                View labelBackground = mViews.get(i).getLabelBackground();
+                if (labelBackground.getTranslationZ() != 0F) {
+                    labelBackground.setTranslationZ(0F);
+                }
+            }
+        }
+        if (!mCanceled && !mShow) {
+            for (int i = 0; i < mViews.size(); i++) {
+                mViews.get(i).setVisibility(View.GONE);
+            }
+        }
+        Runnable endAction = mEndAction;
+        mViews.clear();
+        mEndAction = null;
+        if (!mCanceled && endAction != null) {
+            endAction.run();
+        }
+    }
+
+    private void enableLayers() {
+        if (!mUseLayers) {
+            return;
+        }
+        for (int i = 0; i < mViews.size(); i++) {
+            FabWithLabelView view = mViews.get(i);
+            enableLayer(view.getFab());
+            if (view.isLabelEnabled()) {
+                enableLayer(view.getLabelBackground());
+            }
+        }
+        for (int i = 0; i < mExitingViews.size(); i++) {
+            enableLayer(mExitingViews.get(i));
+        }
+    }
+
+    private void enableLayer(View view) {
+        if (UiUtils.hasOverlappingRendering(view) && view.getLayerType() == View.LAYER_TYPE_NONE) {
+            view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            mLayerViews.add(view);
+        }
+    }
+
+    private void apply(float progress) {
+        mProgress = progress;
+        int count = mViews.size();
+        for (int i = 0; i < count; i++) {
+            FabWithLabelView view = mViews.get(i);
+            float itemProgress = mProgressCurve.getItemProgress(i, count, progress, mStagger);
+            if (mFadeOnly) {
+                ActionItemAnimator.applyFadeProgress(view.getFab(), itemProgress);
+                if (view.isLabelEnabled()) {
+                    ActionItemAnimator.applyFadeProgress(view.getLabelBackground(), itemProgress);
+                }
+            } else {
+                ActionItemAnimator.applyEnlargeProgress(view.getFab(), itemProgress);
+                if (view.isLabelEnabled()) {
+                    ActionItemAnimator.applyFadeAndTranslateProgress(view.getLabelBackground(), itemProgress);
+                }
+            }
+        }
+        for (int i = 0; i < mExitingViews.size(); i++) {
+            mExitingViews.get(i).setAlpha(1F - progress);
+        }
+    }
+}
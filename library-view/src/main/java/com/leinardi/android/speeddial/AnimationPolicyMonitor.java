@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.animation.ValueAnimator;
+import android.content.BroadcastReceiver;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.provider.Settings;
+
+import androidx.annotation.Nullable;
+
+import static com.leinardi.android.speeddial.SpeedDialView.AnimationPolicy.FULL;
+import static com.leinardi.android.speeddial.SpeedDialView.AnimationPolicy.NONE;
+import static com.leinardi.android.speeddial.SpeedDialView.AnimationPolicy.REDUCED;
+
+/**
+ * Resolves {@link SpeedDialView.AnimationPolicy#AUTO} from the system settings: no animation when the animators are
+ * disabled or the animator duration scale is 0, reduced animations when the battery saver is on.
+ * <p>
+ * While registered, the resolved policy is cached and invalidated when one of these settings changes, so that
+ * resolving it on every toggle costs no IPC.
+ */
+final class AnimationPolicyMonitor {
+    private final Context mContext;
+    private final ContentObserver mDurationScaleObserver = new ContentObserver(new Handler(Looper.getMainLooper())) {
+        @Override
+        public void onChange(boolean selfChange) {
+            mValid = false;
+        }
+    };
+    private final BroadcastReceiver mPowerSaveModeReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            mValid = false;
+        }
+    };
+    private boolean mRegistered = false;
+    private boolean mValid = false;
+    @SpeedDialView.AnimationPolicy
+    private int mSystemPolicy = FULL;
+
+    AnimationPolicyMonitor(Context context) {
+        mContext = context.getApplicationContext();
+    }
+
+    @SpeedDialView.AnimationPolicy
+    int getSystemPolicy() {
+        if (!mValid) {
+            mSystemPolicy = resolveSystemPolicy(mContext);
+            // Without the observers, nothing would invalidate the cached value
+            mValid = mRegistered;
+        }
+        return mSystemPolicy;
+    }
+
+    void register() {
+        if (mRegistered) {
+            return;
+        }
+        Uri durationScaleUri = getDurationScaleUri();
+        if (durationScaleUri != null) {
+            mContext.getContentResolver().registerContentObserver(durationScaleUri, false, mDurationScaleObserver);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            mContext.registerReceiver(mPowerSaveModeReceiver,
+                    new IntentFilter(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+        }
+        mRegistered = true;
+        mValid = false;
+    }
+
+    void unregister() {
+        if (!mRegistered) {
+            return;
+        }
+        mContext.getContentResolver().unregisterContentObserver(mDurationScaleObserver);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            mContext.unregisterReceiver(mPowerSaveModeReceiver);
+        }
+        mRegistered = false;
+        mValid = false;
+    }
+
+    @SpeedDialView.AnimationPolicy
+    private static int resolveSystemPolicy(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && !ValueAnimator.areAnimatorsEnabled()) {
+            return NONE;
+        }
+        if (getDurationScale(context.getContentResolver()) == 0F) {
+            return NONE;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+            if (powerManager != null && powerManager.isPowerSaveMode()) {
+                return REDUCED;
+            }
+        }
+        return FULL;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static float getDurationScale(ContentResolver contentResolver) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.Global.getFloat(contentResolver, Settings.Global.ANIMATOR_DURATION_SCALE, 1F);
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return Settings.System.getFloat(contentResolver, Settings.System.ANIMATOR_DURATION_SCALE, 1F);
+        }
+        return 1F;
+    }
+
+    @Nullable
+    @SuppressWarnings("deprecation")
+    private static Uri getDurationScaleUri() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.Global.getUriFor(Settings.Global.ANIMATOR_DURATION_SCALE);
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return Settings.System.getUriFor(Settings.System.ANIMATOR_DURATION_SCALE);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.content.Context;
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.WindowManager;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.lang.annotation.Retention;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.leinardi.android.speeddial.AnimationQualityController.Quality.HIGH;
+import static com.leinardi.android.speeddial.AnimationQualityController.Quality.LOW;
+import static com.leinardi.android.speeddial.AnimationQualityController.Quality.MEDIUM;
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * Measures the frame times of the open animations of a {@link SpeedDialView} and picks the {@link Quality} of the
+ * next ones: when too many of the last opens missed frames, the quality is lowered one step, and it is raised again
+ * after enough opens without any missed frame.
+ * <ul>
+ * <li>{@link Quality#HIGH}: the full animation.</li>
+ * <li>{@link Quality#MEDIUM}: no stagger between the action items and no hardware layers.</li>
+ * <li>{@link Quality#LOW}: like {@link Quality#MEDIUM}, with no label shadows during the animation and half the
+ * duration.</li>
+ * </ul>
+ * Like a {@link FabWithLabelViewPool}, an instance can be shared between several {@link SpeedDialView}s, using
+ * {@link SpeedDialView#setAnimationQualityController(AnimationQualityController)}. The frames are measured with the
+ * {@link Choreographer}, so on Android 4.0 the quality stays {@link Quality#HIGH}.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class AnimationQualityController {
+    private static final int DEFAULT_SAMPLE_COUNT = 5;
+    private static final float DEFAULT_REFRESH_RATE = 60F;
+    private static final float JANK_FRAME_INTERVALS = 1.5F;
+    private static final int JANKY_SAMPLE_FRAME_RATIO = 4;
+    private final ArrayList<Sample> mHistory = new ArrayList<>();
+    private final long mDefaultFrameBudgetNanos;
+    @Nullable
+    private OnSampleListener mOnSampleListener;
+    @Quality
+    private int mQuality = HIGH;
+    private int mSampleCount = DEFAULT_SAMPLE_COUNT;
+    private long mFrameBudgetNanos = 0;
+
+    /**
+     * @param context the context used to read the refresh rate of the display
+     */
+    public AnimationQualityController(Context context) {
+        float refreshRate = DEFAULT_REFRESH_RATE;
+        WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        if (windowManager != null) {
+            Display display = windowManager.getDefaultDisplay();
+            if (display != null && display.getRefreshRate() > 0) {
+                refreshRate = display.getRefreshRate();
+            }
+        }
+        mDefaultFrameBudgetNanos = (long) (JANK_FRAME_INTERVALS * 1_000_000_000L / refreshRate);
+    }
+
+    /**
+     * Returns the quality used by the next open animations.
+     */
+    @Quality
+    public int getQuality() {
+        return mQuality;
+    }
+
+    /**
+     * Forces the quality used by the next open animations. The next samples can change it again.
+     */
+    public void setQuality(@Quality int quality) {
+        mQuality = quality;
+    }
+
+    /**
+     * Returns the samples of the last opens, oldest first.
+     */
+    public List<Sample> getHistory() {
+        return Collections.unmodifiableList(new ArrayList<>(mHistory));
+    }
+
+    /**
+     * Sets how many of the last opens are kept in the history and considered to change the quality.
+     */
+    public void setSampleCount(int sampleCount) {
+        mSampleCount = Math.max(1, sampleCount);
+        while (mHistory.size() > mSampleCount) {
+            mHistory.remove(0);
+        }
+    }
+
+    public int getSampleCount() {
+        return mSampleCount;
+    }
+
+    /**
+     * Sets the time above which a frame is considered missed.
+     *
+     * @param frameBudgetNanos the budget in nanoseconds, or 0 for one and a half refresh intervals of the display
+     */
+    public void setFrameBudgetNanos(long frameBudgetNanos) {
+        mFrameBudgetNanos = Math.max(0, frameBudgetNanos);
+    }
+
+    public long getFrameBudgetNanos() {
+        return mFrameBudgetNanos > 0 ? mFrameBudgetNanos : mDefaultFrameBudgetNanos;
+    }
+
+    /**
+     * Sets a listener notified after each measured open, for instance to log the quality and the history.
+     */
+    public void setOnSampleListener(@Nullable OnSampleListener onSampleListener) {
+        mOnSampleListener = onSampleListener;
+    }
+
+    /**
+     * Starts measuring the frames of an open animation. Each {@link SpeedDialView} sharing this controller keeps its
+     * own measurement, so their open animations can overlap.
+     *
+     * @return the measurement to pass to {@link #endSample(Measurement)} or {@link #cancelSample(Measurement)}, or null
+     * if the frames cannot be measured on this Android version
+     */
+    @Nullable
+    Measurement beginSample() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return null;
+        }
+        Measurement measurement = new Measurement(mQuality);
+        measurement.start();
+        return measurement;
+    }
+
+    /**
+     * Stops measuring the frames of an open animation and updates the quality.
+     */
+    void endSample(Measurement measurement) {
+        if (!measurement.mRunning) {
+            return;
+        }
+        measurement.stop();
+        Sample sample = new Sample(measurement.mQuality, measurement.mFrameCount, measurement.mJankyFrameCount,
+                measurement.mMaxFrameTimeNanos);
+        mHistory.add(sample);
+        if (mHistory.size() > mSampleCount) {
+            mHistory.remove(0);
+        }
+        mQuality = computeQuality();
+        if (mOnSampleListener != null) {
+            mOnSampleListener.onSample(this, sample);
+        }
+    }
+
+    /**
+     * Stops measuring the frames of an open animation, discarding them, for instance when it is reversed.
+     */
+    void cancelSample(Measurement measurement) {
+        if (measurement.mRunning) {
+            measurement.stop();
+        }
+    }
+
+    /**
+     * Lowers the quality if at least half of the last samples at the current quality are janky, raises it if all of
+     * them are and none missed a frame.
+     */
+    @Quality
+    private int computeQuality() {
+        int samples = 0;
+        int jankySamples = 0;
+        boolean smooth = true;
+        for (int i = mHistory.size() - 1; i >= 0; i--) {
+            Sample sample = mHistory.get(i);
+            if (sample.getQuality() != mQuality) {
+                break;
+            }
+            samples++;
+            if (sample.isJanky()) {
+                jankySamples++;
+            }
+            smooth &= sample.getJankyFrameCount() == 0;
+        }
+        if (jankySamples * 2 >= mSampleCount && mQuality < LOW) {
+            return mQuality + 1;
+        }
+        if (samples >= mSampleCount && smooth && mQuality > HIGH) {
+            return mQuality - 1;
+        }
+        return mQuality;
+    }
+
+    @Retention(SOURCE)
+    @IntDef({HIGH, MEDIUM, LOW})
+    public @interface Quality {
+        int HIGH = 0;
+        int MEDIUM = 1;
+        int LOW = 2;
+    }
+
+    /**
+     * Listener notified after each measured open.
+     */
+    public interface OnSampleListener {
+        /**
+         * Called after an open animation has been measured, with the quality of the next ones already updated.
+         *
+         * @param controller the controller, to read the current quality and the history
+         * @param sample     the measures of the open animation
+         */
+        void onSample(AnimationQualityController controller, Sample sample);
+    }
+
+    /**
+     * Frames of one open animation being measured, kept by the {@link SpeedDialView} running it.
+     */
+    final class Measurement {
+        @Quality
+        private final int mQuality;
+        @Nullable
+        private Object mFrameCallback;
+        private boolean mRunning = false;
+        private int mFrameCount;
+        private int mJankyFrameCount;
+        private long mMaxFrameTimeNanos;
+        private long mLastFrameTimeNanos;
+
+        Measurement(@Quality int quality) {
+            mQuality = quality;
+        }
+
+        private void start() {
+            mRunning = true;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                Choreographer.getInstance().postFrameCallback(getFrameCallback());
+            }
+        }
+
+        private void stop() {
+            mRunning = false;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                Choreographer.getInstance().removeFrameCallback(getFrameCallback());
+            }
+        }
+
+        @RequiresApi(Build.VERSION_CODES.JELLY_BEAN)
+        private Choreographer.FrameCallback getFrameCallback() {
+            Object frameCallback = mFrameCallback;
+            if (frameCallback == null) {
+                frameCallback = new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        onFrame(frameTimeNanos);
+                        if (mRunning) {
+                            Choreographer.getInstance().postFrameCallback(this);
+                        }
+                    }
+                };
+                mFrameCallback = frameCallback;
+            }
+            return (Choreographer.FrameCallback) frameCallback;
+        }
+
+        private void onFrame(long frameTimeNanos) {
+            if (mLastFrameTimeNanos != 0) {
+                long frameTimeDelta = frameTimeNanos - mLastFrameTimeNanos;
+                mFrameCount++;
+                if (frameTimeDelta > getFrameBudgetNanos()) {
+                    mJankyFrameCount++;
+                }
+                mMaxFrameTimeNanos = Math.max(mMaxFrameTimeNanos, frameTimeDelta);
+            }
+            mLastFrameTimeNanos = frameTimeNanos;
+        }
+    }
+
+    /**
+     * Frame measures of one open animation.
+     */
+    public static final class Sample {
+        @Quality
+        private final int mQuality;
+        private final int mFrameCount;
+        private final int mJankyFrameCount;
+        private final long mMaxFrameTimeNanos;
+
+        Sample(@Quality int quality, int frameCount, int jankyFrameCount, long maxFrameTimeNanos) {
+            mQuality = quality;
+            mFrameCount = frameCount;
+            mJankyFrameCount = jankyFrameCount;
+            mMaxFrameTimeNanos = maxFrameTimeNanos;
+        }
+
+        /**
+         * Returns the quality the animation ran with.
+         */
+        @Quality
+        public int getQuality() {
+            return mQuality;
+        }
+
+        public int getFrameCount() {
+            return mFrameCount;
+        }
+
+        /**
+         * Returns the number of frames that took longer than the frame budget.
+         */
+        public int getJankyFrameCount() {
+            return mJankyFrameCount;
+        }
+
+        public long getMaxFrameTimeNanos() {
+            return mMaxFrameTimeNanos;
+        }
+
+        /**
+         * Returns true if more than a quarter of the frames were missed.
+         */
+        public boolean isJanky() {
+            return mJankyFrameCount * JANKY_SAMPLE_FRAME_RATIO > mFrameCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Sample{"
+                    + "quality=" + mQuality
+                    + ", frameCount=" + mFrameCount
+                    + ", jankyFrameCount=" + mJankyFrameCount
+                    + ", maxFrameTimeNanos=" + mMaxFrameTimeNanos
+                    + '}';
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates {@link FabWithLabelView}s on a background thread, like {@code AsyncLayoutInflater} does for layouts, and
+ * delivers them on the main thread. The views that can't be created off the main thread are left out of the result,
+ * so that the caller creates them synchronously.
+ */
+final class AsyncFabWithLabelViewInflater {
+    private static final String TAG = AsyncFabWithLabelViewInflater.class.getSimpleName();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull final Runnable runnable) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, "SpeedDialInflater");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private AsyncFabWithLabelViewInflater() {
+    }
+
+    /**
+     * Creates the {@link FabWithLabelView}s of the given action items on a background thread.
+     *
+     * @param context     the context used to create the views
+     * @param actionItems the action items to bind, must not be modified until the callback is invoked
+     * @param callback    invoked on the main thread with the created views, indexed by action item ID
+     */
+    static void inflate(final Context context, final List<SpeedDialActionItem> actionItems,
+                        final Callback callback) {
+        EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final SparseArray<FabWithLabelView> fabWithLabelViews = new SparseArray<>(actionItems.size());
+                for (int i = 0; i < actionItems.size(); i++) {
+                    SpeedDialActionItem actionItem = actionItems.get(i);
+                    try {
+                        fabWithLabelViews.put(actionItem.getId(), actionItem.createFabWithLabelView(context));
+                    } catch (RuntimeException e) {
+                        Log.w(TAG, "Failed to inflate the action item off the main thread", e);
+                    }
+                }
+                MAIN_HANDLER.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onInflateFinished(fabWithLabelViews);
+                    }
+                });
+            }
+        });
+    }
+
+    interface Callback {
+        void onInflateFinished(SparseArray<FabWithLabelView> fabWithLabelViews);
+    }
+}
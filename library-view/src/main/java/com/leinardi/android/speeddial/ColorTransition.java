@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.content.res.ColorStateList;
+
+import androidx.annotation.ColorInt;
+import androidx.core.graphics.ColorUtils;
+
+/**
+ * The {@link ColorStateList}s of a cross-fade between two colors. The cross-fade is quantized in a fixed number of
+ * steps, each created the first time it is needed, or all at once by {@link #prepare()}, and then reused, so that
+ * animating it allocates nothing.
+ */
+final class ColorTransition {
+    private static final int STEPS = 32;
+    private final ColorStateList[] mColorStateLists = new ColorStateList[STEPS + 1];
+    @ColorInt
+    private final int mStartColor;
+    @ColorInt
+    private final int mEndColor;
+
+    ColorTransition(@ColorInt int startColor, @ColorInt int endColor) {
+        mStartColor = startColor;
+        mEndColor = endColor;
+    }
+
+    boolean hasColors(@ColorInt int startColor, @ColorInt int endColor) {
+        return mStartColor == startColor && mEndColor == endColor;
+    }
+
+    /**
+     * Creates all the steps, so that not even the first cross-fade allocates.
+     */
+    void prepare() {
+        for (int step = 0; step <= STEPS; step++) {
+            getStep(step);
+        }
+    }
+
+    /**
+     * Returns the color at the given progress, from 0 (start color) to 1 (end color).
+     */
+    ColorStateList get(float progress) {
+        return getStep(Math.round(Math.max(0F, Math.min(1F, progress)) * STEPS));
+    }
+
+    private ColorStateList getStep(int step) {
+        ColorStateList colorStateList = mColorStateLists[step];
+        if (colorStateList == null) {
+            colorStateList = ColorStateList.valueOf(ColorUtils.blendARGB(mStartColor, mEndColor, (float) step / STEPS));
+            mColorStateLists[step] = colorStateList;
+        }
+        return colorStateList;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Caches the raster of a rotated {@link Drawable}, keyed by the source drawable, the rotation angle, the size and the
+ * density. When the key changes but the size doesn't, the bitmap is redrawn in place instead of allocating a new one.
+ */
+final class DrawableRasterCache {
+    @Nullable
+    private Bitmap mBitmap;
+    private boolean mOwnsBitmap;
+    private boolean mValid = false;
+    @Nullable
+    private Drawable mSourceDrawable;
+    private float mAngle;
+    private int mWidth;
+    private int mHeight;
+    private int mDensityDpi;
+
+    /**
+     * Returns the raster of {@code rotatedDrawable}, drawing it only if the key changed since the last call or the
+     * cache was invalidated.
+     *
+     * @param sourceDrawable  the drawable before the rotation, part of the key
+     * @param angle           the rotation angle, part of the key
+     * @param rotatedDrawable the drawable to rasterize
+     * @param densityDpi      the density the drawable is drawn for, part of the key
+     */
+    Bitmap getBitmap(Drawable sourceDrawable, float angle, Drawable rotatedDrawable, int densityDpi) {
+        int width = Math.max(1, rotatedDrawable.getIntrinsicWidth());
+        int height = Math.max(1, rotatedDrawable.getIntrinsicHeight());
+        Bitmap bitmap = mBitmap;
+        if (bitmap != null && mValid && mSourceDrawable == sourceDrawable && mAngle == angle && mWidth == width
+                && mHeight == height && mDensityDpi == densityDpi) {
+            return bitmap;
+        }
+        mSourceDrawable = sourceDrawable;
+        mAngle = angle;
+        mWidth = width;
+        mHeight = height;
+        mDensityDpi = densityDpi;
+        mValid = true;
+        if (rotatedDrawable instanceof BitmapDrawable && ((BitmapDrawable) rotatedDrawable).getBitmap() != null) {
+            // Not rotated: the drawable already has a raster, which must not be drawn over
+            mBitmap = ((BitmapDrawable) rotatedDrawable).getBitmap();
+            mOwnsBitmap = false;
+            return mBitmap;
+        }
+        if (bitmap != null && mOwnsBitmap && bitmap.getWidth() == width && bitmap.getHeight() == height) {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        } else {
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mOwnsBitmap = true;
+        }
+        Canvas canvas = new Canvas(bitmap);
+        rotatedDrawable.setBounds(0, 0, width, height);
+        rotatedDrawable.draw(canvas);
+        mBitmap = bitmap;
+        return bitmap;
+    }
+
+    /**
+     * Forces the next {@link #getBitmap(Drawable, float, Drawable, int)} to draw the drawable again, reusing the bitmap
+     * if the size is unchanged.
+     */
+    void invalidate() {
+        mValid = false;
+    }
+
+    /**
+     * Releases the bitmap.
+     */
+    void clear() {
+        mBitmap = null;
+        mOwnsBitmap = false;
+        mValid = false;
+        mSourceDrawable = null;
+    }
+}
@@ -36,7 +36,6 @@ import androidx.annotation.ColorInt;
 import androidx.annotation.DrawableRes;
 import androidx.annotation.Nullable;
 import androidx.cardview.widget.CardView;
-import androidx.core.content.res.ResourcesCompat;
 import androidx.core.widget.ImageViewCompat;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.leinardi.android.speeddial.SpeedDialView.OnActionSelectedListener;
@@ -55,6 +54,9 @@ public class FabWithLabelView extends LinearLayout {
 
     private TextView mLabelTextView;
     private FloatingActionButton mFab;
+    private FloatingActionButton mNormalFab;
+    @Nullable
+    private FloatingActionButton mFillFab;
     private CardView mLabelCardView;
     private boolean mIsLabelEnabled;
     @Nullable
@@ -96,11 +98,7 @@ public class FabWithLabelView extends LinearLayout {
     public void setOrientation(int orientation) {
         super.setOrientation(orientation);
         setFabSize(mCurrentFabSize);
-        if (orientation == VERTICAL) {
-            setLabelEnabled(false);
-        } else {
-            setLabel(mLabelTextView.getText().toString());
-        }
+        setLabelEnabled(orientation == HORIZONTAL && !TextUtils.isEmpty(mLabelTextView.getText()));
     }
 
     /**
@@ -147,51 +145,76 @@ public class FabWithLabelView extends LinearLayout {
         return new SpeedDialActionItem.Builder(getSpeedDialActionItem());
     }
 
+    /**
+     * Binds the {@link SpeedDialActionItem} to this view. Only the properties that differ from the ones of the
+     * previously bound item are updated.
+     *
+     * @param actionItem the item to bind
+     */
     public void setSpeedDialActionItem(SpeedDialActionItem actionItem) {
+        SpeedDialActionItem oldActionItem = mSpeedDialActionItem;
         mSpeedDialActionItem = actionItem;
-        if (actionItem.getFabType().equals(SpeedDialActionItem.TYPE_FILL)) {
-            this.removeView(mFab);
-            View view = inflate(getContext(), R.layout.sd_fill_fab, this);
-            FloatingActionButton newFab = view.findViewById(R.id.sd_fab_fill);
-            mFab = newFab;
-        }
+        boolean fabChanged = setFabType(actionItem.getFabType());
         setId(actionItem.getId());
-        setLabel(actionItem.getLabel(getContext()));
-        setFabContentDescription(actionItem.getContentDescription(getContext()));
-        SpeedDialActionItem speedDialActionItem = getSpeedDialActionItem();
-        setLabelClickable(speedDialActionItem != null && speedDialActionItem.isLabelClickable());
-        setFabIcon(actionItem.getFabImageDrawable(getContext()));
-        int imageTintColor = actionItem.getFabImageTintColor();
-        if (imageTintColor == RESOURCE_NOT_SET) {
-            imageTintColor = UiUtils.getOnSecondaryColor(getContext());
+        if (oldActionItem == null || !actionItem.hasSameLabel(oldActionItem)) {
+            setLabel(actionItem.getLabel(getContext()));
         }
-        boolean imageTint = actionItem.getFabImageTint();
-        if (imageTint) {
-            setFabImageTintColor(imageTintColor);
+        if (oldActionItem == null || fabChanged || !actionItem.hasSameContentDescription(oldActionItem)) {
+            setFabContentDescription(actionItem.getContentDescription(getContext()));
         }
-        int fabBackgroundColor = actionItem.getFabBackgroundColor();
-        if (fabBackgroundColor == RESOURCE_NOT_SET) {
-            fabBackgroundColor = UiUtils.getPrimaryColor(getContext());
+        if (oldActionItem == null || oldActionItem.isLabelClickable() != actionItem.isLabelClickable()
+                || oldActionItem.isEnabled() != actionItem.isEnabled()) {
+            setEnabled(actionItem.isEnabled());
+            mFab.setEnabled(actionItem.isEnabled());
+            setLabelClickable(actionItem.isLabelClickable() && actionItem.isEnabled());
         }
-        setFabBackgroundColor(fabBackgroundColor);
-        int labelColor = actionItem.getLabelColor();
-        if (labelColor == RESOURCE_NOT_SET) {
-            labelColor = ResourcesCompat.getColor(getResources(), R.color.sd_label_text_color,
-                    getContext().getTheme());
+        if (oldActionItem == null || fabChanged || !actionItem.hasSameFabImage(oldActionItem)) {
+            setFabIcon(actionItem.getFabImageDrawable(getContext()));
         }
-        setLabelColor(labelColor);
-        int labelBackgroundColor = actionItem.getLabelBackgroundColor();
-        if (labelBackgroundColor == RESOURCE_NOT_SET) {
-            labelBackgroundColor = ResourcesCompat.getColor(getResources(), R.color.sd_label_background_color,
-                    getContext().getTheme());
+        if (oldActionItem == null || fabChanged
+                || oldActionItem.getFabImageTint() != actionItem.getFabImageTint()
+                || oldActionItem.getFabImageTintColor() != actionItem.getFabImageTintColor()) {
+            if (actionItem.getFabImageTint()) {
+                int imageTintColor = actionItem.getFabImageTintColor();
+                if (imageTintColor == RESOURCE_NOT_SET) {
+                    imageTintColor = UiUtils.getOnSecondaryColor(getContext());
+                }
+                setFabImageTintColor(imageTintColor);
+            } else if (oldActionItem != null && oldActionItem.getFabImageTint()) {
+                ImageViewCompat.setImageTintList(mFab, null);
+            }
         }
-        setLabelBackgroundColor(labelBackgroundColor);
-        if (actionItem.getFabSize() == SIZE_AUTO || actionItem.getFabType().equals(SpeedDialActionItem.TYPE_FILL)) {
-            getFab().setSize(SIZE_MINI);
-        } else {
-            getFab().setSize(actionItem.getFabSize());
+        if (oldActionItem == null || fabChanged
+                || oldActionItem.getFabBackgroundColor() != actionItem.getFabBackgroundColor()) {
+            int fabBackgroundColor = actionItem.getFabBackgroundColor();
+            if (fabBackgroundColor == RESOURCE_NOT_SET) {
+                fabBackgroundColor = UiUtils.getPrimaryColor(getContext());
+            }
+            setFabBackgroundColor(fabBackgroundColor);
+        }
+        if (oldActionItem == null || oldActionItem.getLabelColor() != actionItem.getLabelColor()) {
+            int labelColor = actionItem.getLabelColor();
+            if (labelColor == RESOURCE_NOT_SET) {
+                labelColor = ResourceCache.getColor(getContext(), R.color.sd_label_text_color);
+            }
+            setLabelColor(labelColor);
+        }
+        if (oldActionItem == null || oldActionItem.getLabelBackgroundColor() != actionItem.getLabelBackgroundColor()) {
+            int labelBackgroundColor = actionItem.getLabelBackgroundColor();
+            if (labelBackgroundColor == RESOURCE_NOT_SET) {
+                labelBackgroundColor = ResourceCache.getColor(getContext(), R.color.sd_label_background_color);
+            }
+            setLabelBackgroundColor(labelBackgroundColor);
+        }
+        if (oldActionItem == null || fabChanged || oldActionItem.getFabSize() != actionItem.getFabSize()) {
+            if (actionItem.getFabSize() == SIZE_AUTO
+                    || actionItem.getFabType().equals(SpeedDialActionItem.TYPE_FILL)) {
+                getFab().setSize(SIZE_MINI);
+            } else {
+                getFab().setSize(actionItem.getFabSize());
+            }
+            setFabSize(actionItem.getFabSize());
         }
-        setFabSize(actionItem.getFabSize());
     }
 
     /**
@@ -257,6 +280,7 @@ public class FabWithLabelView extends LinearLayout {
         rootView.setFocusableInTouchMode(false);
       
         mFab = rootView.findViewById(R.id.sd_fab);
+        mNormalFab = mFab;
         mLabelTextView = rootView.findViewById(R.id.sd_label);
         mLabelCardView = rootView.findViewById(R.id.sd_label_container);
 
@@ -297,14 +321,21 @@ public class FabWithLabelView extends LinearLayout {
     }
 
     private void setFabSize(@FloatingActionButton.Size int fabSize) {
-        int normalFabSizePx = getContext().getResources().getDimensionPixelSize(R.dimen.sd_fab_normal_size);
-        int miniFabSizePx = getContext().getResources().getDimensionPixelSize(R.dimen.sd_fab_mini_size);
-        int fabSideMarginPx = getContext().getResources().getDimensionPixelSize(R.dimen.sd_fab_side_margin);
+        int normalFabSizePx = ResourceCache.getDimensionPixelSize(getContext(), R.dimen.sd_fab_normal_size);
+        int miniFabSizePx = ResourceCache.getDimensionPixelSize(getContext(), R.dimen.sd_fab_mini_size);
+        int fabSideMarginPx = ResourceCache.getDimensionPixelSize(getContext(), R.dimen.sd_fab_side_margin);
         int fabSizePx = fabSize == SIZE_NORMAL ? normalFabSizePx : miniFabSizePx;
         LayoutParams rootLayoutParams;
+        if (getLayoutParams() instanceof LayoutParams) {
+            rootLayoutParams = (LayoutParams) getLayoutParams();
+        } else {
+            rootLayoutParams = new LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+                    ViewGroup.LayoutParams.WRAP_CONTENT);
+        }
         LayoutParams fabLayoutParams = (LayoutParams) mFab.getLayoutParams();
         if (getOrientation() == HORIZONTAL) {
-            rootLayoutParams = new LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, fabSizePx);
+            rootLayoutParams.width = ViewGroup.LayoutParams.WRAP_CONTENT;
+            rootLayoutParams.height = fabSizePx;
             rootLayoutParams.gravity = Gravity.END;
 
             if (fabSize == SIZE_NORMAL) {
@@ -315,7 +346,8 @@ public class FabWithLabelView extends LinearLayout {
 
             }
         } else {
-            rootLayoutParams = new LayoutParams(fabSizePx, ViewGroup.LayoutParams.WRAP_CONTENT);
+            rootLayoutParams.width = fabSizePx;
+            rootLayoutParams.height = ViewGroup.LayoutParams.WRAP_CONTENT;
             rootLayoutParams.gravity = Gravity.CENTER_VERTICAL;
             fabLayoutParams.setMargins(0, 0, 0, 0);
         }
@@ -325,6 +357,37 @@ public class FabWithLabelView extends LinearLayout {
         mCurrentFabSize = fabSize;
     }
 
+    /**
+     * Shows the fab matching the given type, inflating the fill fab the first time it is needed.
+     *
+     * @param fabType the type of the fab to show.
+     * @return true if the fab has been replaced, false if it was already of the given type.
+     */
+    private boolean setFabType(@SpeedDialActionItem.FabType String fabType) {
+        FloatingActionButton fab;
+        if (fabType.equals(SpeedDialActionItem.TYPE_FILL)) {
+            if (mFillFab == null) {
+                removeView(mFab);
+                View view = inflate(getContext(), R.layout.sd_fill_fab, this);
+                mFillFab = view.findViewById(R.id.sd_fab_fill);
+                mFab = mFillFab;
+                setOnActionSelectedListener(mOnActionSelectedListener);
+                return true;
+            }
+            fab = mFillFab;
+        } else {
+            fab = mNormalFab;
+        }
+        if (fab == mFab) {
+            return false;
+        }
+        removeView(mFab);
+        addView(fab);
+        mFab = fab;
+        setOnActionSelectedListener(mOnActionSelectedListener);
+        return true;
+    }
+
     /**
      * Sets fab drawable.
      *
@@ -360,9 +423,7 @@ public class FabWithLabelView extends LinearLayout {
      * @param sequence content description to set.
      */
     private void setFabContentDescription(@Nullable CharSequence sequence) {
-        if (!TextUtils.isEmpty(sequence)) {
-            mFab.setContentDescription(sequence);
-        }
+        mFab.setContentDescription(TextUtils.isEmpty(sequence) ? null : sequence);
     }
 
     /**
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.content.Context;
+import android.util.SparseArray;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.StyleRes;
+import androidx.core.view.ViewCompat;
+
+import java.util.ArrayList;
+
+import static com.leinardi.android.speeddial.SpeedDialActionItem.TYPE_FILL;
+
+/**
+ * Pool of {@link FabWithLabelView} removed from a {@link SpeedDialView}, used to rebind them to new
+ * {@link SpeedDialActionItem}s instead of inflating new views. Views are grouped by theme and
+ * {@link SpeedDialActionItem.FabType}.
+ * <p>
+ * Like a {@code RecyclerView.RecycledViewPool}, an instance can be shared between several {@link SpeedDialView}s,
+ * using {@link SpeedDialView#setFabWithLabelViewPool(FabWithLabelViewPool)}. The pooled views keep a reference to
+ * the {@link Context} that created them, so a pool must not be shared between different Activities.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class FabWithLabelViewPool {
+    private static final int DEFAULT_MAX_SCRAP = 5;
+    private final SparseArray<ScrapData> mNormalScrap = new SparseArray<>();
+    private final SparseArray<ScrapData> mFillScrap = new SparseArray<>();
+    private int mHitCount = 0;
+    private int mMissCount = 0;
+
+    /**
+     * Sets the maximum number of views kept in the pool for the given theme and fab type. Views in excess are
+     * discarded.
+     *
+     * @param theme   the theme of the {@link SpeedDialActionItem}, or {@link SpeedDialActionItem#RESOURCE_NOT_SET}
+     * @param fabType the {@link SpeedDialActionItem.FabType} of the {@link SpeedDialActionItem}
+     * @param max     the maximum number of views to keep
+     */
+    public void setMaxRecycledViews(@StyleRes int theme, @SpeedDialActionItem.FabType String fabType, int max) {
+        ScrapData scrapData = getScrapData(theme, fabType);
+        scrapData.mMaxScrap = max;
+        ArrayList<FabWithLabelView> scrapHeap = scrapData.mScrapHeap;
+        while (scrapHeap.size() > max) {
+            scrapHeap.remove(scrapHeap.size() - 1);
+        }
+    }
+
+    /**
+     * Returns the number of views currently kept in the pool for the given theme and fab type.
+     */
+    public int getRecycledViewCount(@StyleRes int theme, @SpeedDialActionItem.FabType String fabType) {
+        return getScrapData(theme, fabType).mScrapHeap.size();
+    }
+
+    /**
+     * Returns how many times {@link #getFabWithLabelView(Context, SpeedDialActionItem)} returned a recycled view.
+     */
+    public int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Returns how many times {@link #getFabWithLabelView(Context, SpeedDialActionItem)} had to inflate a new view.
+     */
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Discards all the views kept in the pool.
+     */
+    public void clear() {
+        for (int i = 0; i < mNormalScrap.size(); i++) {
+            mNormalScrap.valueAt(i).mScrapHeap.clear();
+        }
+        for (int i = 0; i < mFillScrap.size(); i++) {
+            mFillScrap.valueAt(i).mScrapHeap.clear();
+        }
+    }
+
+    /**
+     * Returns a {@link FabWithLabelView} bound to the given {@link SpeedDialActionItem}, reusing a pooled view
+     * with the same theme and fab type if available.
+     *
+     * @param context    the context used to inflate a new view when the pool is empty
+     * @param actionItem the {@link SpeedDialActionItem} to bind
+     * @return a {@link FabWithLabelView} bound to {@code actionItem}
+     */
+    @NonNull
+    public FabWithLabelView getFabWithLabelView(Context context, SpeedDialActionItem actionItem) {
+        ArrayList<FabWithLabelView> scrapHeap = getScrapData(actionItem.getTheme(), actionItem.getFabType())
+                .mScrapHeap;
+        if (!scrapHeap.isEmpty()) {
+            mHitCount++;
+            FabWithLabelView fabWithLabelView = scrapHeap.remove(scrapHeap.size() - 1);
+            fabWithLabelView.setSpeedDialActionItem(actionItem);
+            return fabWithLabelView;
+        }
+        mMissCount++;
+        return actionItem.createFabWithLabelView(context);
+    }
+
+    /**
+     * Resets the given {@link FabWithLabelView} and adds it to the pool, if the pool for its theme and fab type is
+     * not full.
+     *
+     * @param fabWithLabelView a view already removed from its parent
+     */
+    public void putRecycledView(FabWithLabelView fabWithLabelView) {
+        if (fabWithLabelView.getParent() != null) {
+            throw new IllegalArgumentException("The FabWithLabelView must be removed from its parent first");
+        }
+        SpeedDialActionItem actionItem = fabWithLabelView.getSpeedDialActionItem();
+        ScrapData scrapData = getScrapData(actionItem.getTheme(), actionItem.getFabType());
+        if (scrapData.mScrapHeap.size() >= scrapData.mMaxScrap) {
+            return;
+        }
+        fabWithLabelView.setOnActionSelectedListener(null);
+        resetView(fabWithLabelView);
+        resetView(fabWithLabelView.getFab());
+        resetView(fabWithLabelView.getLabelBackground());
+        fabWithLabelView.setVisibility(View.VISIBLE);
+        scrapData.mScrapHeap.add(fabWithLabelView);
+    }
+
+    private void resetView(View view) {
+        ViewCompat.animate(view).cancel();
+        ActionItemAnimator.reset(view);
+        view.setTranslationX(0F);
+        view.setRotation(0F);
+    }
+
+    private ScrapData getScrapData(@StyleRes int theme, @SpeedDialActionItem.FabType String fabType) {
+        SparseArray<ScrapData> scrap = TYPE_FILL.equals(fabType) ? mFillScrap : mNormalScrap;
+        ScrapData scrapData = scrap.get(theme);
+        if (scrapData == null) {
+            scrapData = new ScrapData();
+            scrap.put(theme, scrapData);
+        }
+        return scrapData;
+    }
+
+    private static class ScrapData {
+        private final ArrayList<FabWithLabelView> mScrapHeap = new ArrayList<>();
+        private int mMaxScrap = DEFAULT_MAX_SCRAP;
+    }
+}
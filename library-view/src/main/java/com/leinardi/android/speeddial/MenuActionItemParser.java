@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.content.res.XmlResourceParser;
+import android.util.AttributeSet;
+import android.util.Xml;
+import android.view.InflateException;
+
+import androidx.annotation.MenuRes;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.leinardi.android.speeddial.SpeedDialActionItem.RESOURCE_NOT_SET;
+
+/**
+ * Parses a menu resource into {@link SpeedDialActionItem}s, without building a {@link android.view.Menu}. The items
+ * of the menu and of its groups are parsed, sorted by {@code android:orderInCategory} like a menu does, while the
+ * items of the sub-menus and the items hidden with {@code android:visible}, or in a hidden group, are ignored. The
+ * items disabled with {@code android:enabled}, or in a disabled group, are created disabled.
+ * <p>
+ * The labels, the content descriptions and the icons are kept as resources, so they are resolved by the views. The
+ * colors are resolved with the theme of the given context, see {@link ResourceCache#getMenuActionItems(Context, int)}
+ * for the cache of the result.
+ */
+final class MenuActionItemParser {
+    private static final String TAG_MENU = "menu";
+    private static final String TAG_ITEM = "item";
+    private static final String TAG_GROUP = "group";
+    private static final int FAB_TYPE_FILL = 1;
+
+    private MenuActionItemParser() {
+    }
+
+    static List<SpeedDialActionItem> parse(Context context, @MenuRes int menuRes) {
+        XmlResourceParser parser = context.getResources().getMenu(menuRes);
+        try {
+            return parse(context, parser, Xml.asAttributeSet(parser));
+        } catch (XmlPullParserException | IOException e) {
+            throw new InflateException("Error inflating menu XML", e);
+        } finally {
+            parser.close();
+        }
+    }
+
+    private static List<SpeedDialActionItem> parse(Context context, XmlResourceParser parser, AttributeSet attrs)
+            throws XmlPullParserException, IOException {
+        final ArrayList<SpeedDialActionItem> actionItems = new ArrayList<>();
+        final ArrayList<Integer> orders = new ArrayList<>();
+        int menuDepth = 0;
+        boolean groupVisible = true;
+        boolean groupEnabled = true;
+        int eventType = parser.getEventType();
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            if (eventType == XmlPullParser.START_TAG) {
+                if (TAG_MENU.equals(parser.getName())) {
+                    menuDepth++;
+                } else if (TAG_GROUP.equals(parser.getName()) && menuDepth == 1) {
+                    TypedArray styledAttrs = context.obtainStyledAttributes(attrs, R.styleable.SpeedDialActionItem);
+                    groupVisible = styledAttrs.getBoolean(R.styleable.SpeedDialActionItem_android_visible, true);
+                    groupEnabled = styledAttrs.getBoolean(R.styleable.SpeedDialActionItem_android_enabled, true);
+                    styledAttrs.recycle();
+                } else if (TAG_ITEM.equals(parser.getName()) && menuDepth == 1 && groupVisible) {
+                    TypedArray styledAttrs = context.obtainStyledAttributes(attrs, R.styleable.SpeedDialActionItem);
+                    try {
+                        if (styledAttrs.getBoolean(R.styleable.SpeedDialActionItem_android_visible, true)) {
+                            orders.add(styledAttrs.getInt(R.styleable.SpeedDialActionItem_android_orderInCategory, 0));
+                            actionItems.add(createActionItem(styledAttrs, groupEnabled));
+                        }
+                    } finally {
+                        styledAttrs.recycle();
+                    }
+                }
+            } else if (eventType == XmlPullParser.END_TAG && TAG_MENU.equals(parser.getName())) {
+                menuDepth--;
+            } else if (eventType == XmlPullParser.END_TAG && TAG_GROUP.equals(parser.getName()) && menuDepth == 1) {
+                groupVisible = true;
+                groupEnabled = true;
+            }
+            eventType = parser.next();
+        }
+
+        // Stable sort, like the items of a menu with the same order
+        ArrayList<Integer> positions = new ArrayList<>(actionItems.size());
+        for (int i = 0; i < actionItems.size(); i++) {
+            positions.add(i);
+        }
+        Collections.sort(positions, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer position1, Integer position2) {
+                return orders.get(position1).compareTo(orders.get(position2));
+            }
+        });
+        ArrayList<SpeedDialActionItem> sortedActionItems = new ArrayList<>(actionItems.size());
+        for (int i = 0; i < positions.size(); i++) {
+            sortedActionItems.add(actionItems.get(positions.get(i)));
+        }
+        return sortedActionItems;
+    }
+
+    private static SpeedDialActionItem createActionItem(TypedArray styledAttrs, boolean groupEnabled) {
+        SpeedDialActionItem.Builder builder = new SpeedDialActionItem.Builder(
+                styledAttrs.getResourceId(R.styleable.SpeedDialActionItem_android_id, 0),
+                styledAttrs.getResourceId(R.styleable.SpeedDialActionItem_android_icon, RESOURCE_NOT_SET));
+        int titleRes = styledAttrs.getResourceId(R.styleable.SpeedDialActionItem_android_title, 0);
+        if (titleRes != 0) {
+            builder.setLabel(titleRes);
+        } else {
+            builder.setLabel(styledAttrs.getString(R.styleable.SpeedDialActionItem_android_title));
+        }
+        int contentDescriptionRes = styledAttrs.getResourceId(
+                R.styleable.SpeedDialActionItem_android_contentDescription, 0);
+        if (contentDescriptionRes != 0) {
+            builder.setContentDescription(contentDescriptionRes);
+        } else {
+            builder.setContentDescription(
+                    styledAttrs.getString(R.styleable.SpeedDialActionItem_android_contentDescription));
+        }
+        builder.setTheme(styledAttrs.getResourceId(R.styleable.SpeedDialActionItem_android_theme, RESOURCE_NOT_SET));
+        if (styledAttrs.getInt(R.styleable.SpeedDialActionItem_sdFabType, 0) == FAB_TYPE_FILL) {
+            builder.setFabType(SpeedDialActionItem.TYPE_FILL);
+        }
+        if (styledAttrs.hasValue(R.styleable.SpeedDialActionItem_fabSize)) {
+            builder.setFabSize(styledAttrs.getInt(R.styleable.SpeedDialActionItem_fabSize, 0));
+        }
+        if (!styledAttrs.getBoolean(R.styleable.SpeedDialActionItem_sdFabImageTint, true)) {
+            builder.setFabImageTintColor(null);
+        } else if (styledAttrs.hasValue(R.styleable.SpeedDialActionItem_sdFabImageTintColor)) {
+            builder.setFabImageTintColor(styledAttrs.getColor(R.styleable.SpeedDialActionItem_sdFabImageTintColor,
+                    RESOURCE_NOT_SET));
+        }
+        return builder
+                .setFabBackgroundColor(styledAttrs.getColor(R.styleable.SpeedDialActionItem_fabBackgroundColor,
+                        RESOURCE_NOT_SET))
+                .setLabelColor(styledAttrs.getColor(R.styleable.SpeedDialActionItem_fabLabelColor, RESOURCE_NOT_SET))
+                .setLabelBackgroundColor(styledAttrs.getColor(
+                        R.styleable.SpeedDialActionItem_fabLabelBackgroundColor, RESOURCE_NOT_SET))
+                .setLabelClickable(styledAttrs.getBoolean(R.styleable.SpeedDialActionItem_fabLabelClickable, true))
+                .setEnabled(groupEnabled
+                        && styledAttrs.getBoolean(R.styleable.SpeedDialActionItem_android_enabled, true))
+                .create();
+    }
+}
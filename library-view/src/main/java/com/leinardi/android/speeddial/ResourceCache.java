@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Build;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.util.TypedValue;
+
+import androidx.annotation.AttrRes;
+import androidx.annotation.ColorInt;
+import androidx.annotation.ColorRes;
+import androidx.annotation.DimenRes;
+import androidx.annotation.IntegerRes;
+import androidx.annotation.MenuRes;
+import androidx.core.content.res.ResourcesCompat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.WeakHashMap;
+
+/**
+ * Caches the colors, dimensions, integers and menus resolved by the library, per {@link Resources.Theme}. A cache is
+ * discarded when the {@link Configuration} of its resources changes, for instance the night mode, so that building
+ * many action items resolves each resource once.
+ * <p>
+ * The action items can be created on a background thread, see {@link AsyncFabWithLabelViewInflater}, so the cache is
+ * thread safe.
+ */
+final class ResourceCache {
+    private static final WeakHashMap<Resources.Theme, ResourceCache> CACHES = new WeakHashMap<>();
+    private final Configuration mConfiguration;
+    private final SparseIntArray mThemeColors = new SparseIntArray();
+    private final SparseIntArray mColors = new SparseIntArray();
+    private final SparseIntArray mIntegers = new SparseIntArray();
+    private final SparseIntArray mDimensionPixelSizes = new SparseIntArray();
+    private final SparseIntArray mDimensions = new SparseIntArray();
+    private final SparseArray<List<SpeedDialActionItem>> mMenuActionItems = new SparseArray<>();
+
+    private ResourceCache(Configuration configuration) {
+        mConfiguration = new Configuration(configuration);
+    }
+
+    /**
+     * Returns the color of a theme attribute.
+     *
+     * @param attr          the attribute, used from Android 5.0
+     * @param appCompatAttr the name of the attribute defined by AppCompat, used before Android 5.0
+     */
+    @ColorInt
+    static int getThemeColor(Context context, @AttrRes int attr, String appCompatAttr) {
+        ResourceCache cache = get(context);
+        synchronized (cache) {
+            int index = cache.mThemeColors.indexOfKey(attr);
+            if (index >= 0) {
+                return cache.mThemeColors.valueAt(index);
+            }
+            int colorAttr = attr;
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+                colorAttr = context.getResources().getIdentifier(appCompatAttr, "attr", context.getPackageName());
+            }
+            TypedValue outValue = new TypedValue();
+            context.getTheme().resolveAttribute(colorAttr, outValue, true);
+            cache.mThemeColors.put(attr, outValue.data);
+            return outValue.data;
+        }
+    }
+
+    @ColorInt
+    static int getColor(Context context, @ColorRes int id) {
+        ResourceCache cache = get(context);
+        synchronized (cache) {
+            int index = cache.mColors.indexOfKey(id);
+            if (index >= 0) {
+                return cache.mColors.valueAt(index);
+            }
+            int color = ResourcesCompat.getColor(context.getResources(), id, context.getTheme());
+            cache.mColors.put(id, color);
+            return color;
+        }
+    }
+
+    static int getInteger(Context context, @IntegerRes int id) {
+        ResourceCache cache = get(context);
+        synchronized (cache) {
+            int index = cache.mIntegers.indexOfKey(id);
+            if (index >= 0) {
+                return cache.mIntegers.valueAt(index);
+            }
+            int integer = context.getResources().getInteger(id);
+            cache.mIntegers.put(id, integer);
+            return integer;
+        }
+    }
+
+    static int getDimensionPixelSize(Context context, @DimenRes int id) {
+        ResourceCache cache = get(context);
+        synchronized (cache) {
+            int index = cache.mDimensionPixelSizes.indexOfKey(id);
+            if (index >= 0) {
+                return cache.mDimensionPixelSizes.valueAt(index);
+            }
+            int size = context.getResources().getDimensionPixelSize(id);
+            cache.mDimensionPixelSizes.put(id, size);
+            return size;
+        }
+    }
+
+    static float getDimension(Context context, @DimenRes int id) {
+        ResourceCache cache = get(context);
+        synchronized (cache) {
+            int index = cache.mDimensions.indexOfKey(id);
+            if (index >= 0) {
+                return Float.intBitsToFloat(cache.mDimensions.valueAt(index));
+            }
+            float dimension = context.getResources().getDimension(id);
+            cache.mDimensions.put(id, Float.floatToIntBits(dimension));
+            return dimension;
+        }
+    }
+
+    /**
+     * Returns the action items of a menu resource, parsed with {@link MenuActionItemParser}. The items are immutable,
+     * so the same list is shared by all the views inflating the menu with the same theme.
+     */
+    static List<SpeedDialActionItem> getMenuActionItems(Context context, @MenuRes int id) {
+        ResourceCache cache = get(context);
+        synchronized (cache) {
+            List<SpeedDialActionItem> actionItems = cache.mMenuActionItems.get(id);
+            if (actionItems == null) {
+                actionItems = Collections.unmodifiableList(MenuActionItemParser.parse(context, id));
+                cache.mMenuActionItems.put(id, actionItems);
+            }
+            return actionItems;
+        }
+    }
+
+    /**
+     * Discards the cache of the theme of the given context. Changes of the configuration are detected anyway, this
+     * only makes sure that nothing stale survives a change notified to a view.
+     */
+    static void invalidate(Context context) {
+        synchronized (CACHES) {
+            CACHES.remove(context.getTheme());
+        }
+    }
+
+    private static ResourceCache get(Context context) {
+        Resources.Theme theme = context.getTheme();
+        Configuration configuration = context.getResources().getConfiguration();
+        synchronized (CACHES) {
+            ResourceCache cache = CACHES.get(theme);
+            if (cache == null || cache.mConfiguration.diff(configuration) != 0) {
+                cache = new ResourceCache(configuration);
+                CACHES.put(theme, cache);
+            }
+            return cache;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import androidx.annotation.StringDef;
 import androidx.annotation.StringRes;
 import androidx.annotation.StyleRes;
 import androidx.appcompat.content.res.AppCompatResources;
+import androidx.core.util.ObjectsCompat;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
 import java.lang.annotation.Retention;
@@ -72,10 +73,12 @@ public class SpeedDialActionItem implements Parcelable {
     @ColorInt
     private final int mLabelBackgroundColor;
     private final boolean mLabelClickable;
+    private final boolean mEnabled;
     @FloatingActionButton.Size
     private final int mFabSize;
     @StyleRes
     private final int mTheme;
+    private int mContentHash = 0;
 
     private SpeedDialActionItem(Builder builder) {
         mId = builder.mId;
@@ -92,6 +95,7 @@ public class SpeedDialActionItem implements Parcelable {
         mLabelColor = builder.mLabelColor;
         mLabelBackgroundColor = builder.mLabelBackgroundColor;
         mLabelClickable = builder.mLabelClickable;
+        mEnabled = builder.mEnabled;
         mFabSize = builder.mFabSize;
         mTheme = builder.mTheme;
     }
@@ -171,11 +175,82 @@ public class SpeedDialActionItem implements Parcelable {
         return mLabelClickable;
     }
 
+    /**
+     * Returns false if the fab and the label of this item don't react to clicks, like a disabled menu item.
+     */
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
     @StyleRes
     public int getTheme() {
         return mTheme;
     }
 
+    /**
+     * Returns true if this item would be displayed exactly like the given one, false otherwise. {@link Drawable}
+     * icons are compared by reference.
+     */
+    boolean hasSameContent(SpeedDialActionItem other) {
+        return mId == other.mId
+                && hasSameLabel(other)
+                && hasSameContentDescription(other)
+                && hasSameFabImage(other)
+                && mFabImageTintColor == other.mFabImageTintColor
+                && mFabImageTint == other.mFabImageTint
+                && mFabBackgroundColor == other.mFabBackgroundColor
+                && mLabelColor == other.mLabelColor
+                && mLabelBackgroundColor == other.mLabelBackgroundColor
+                && mLabelClickable == other.mLabelClickable
+                && mEnabled == other.mEnabled
+                && mFabSize == other.mFabSize
+                && mTheme == other.mTheme
+                && ObjectsCompat.equals(mFabType, other.mFabType);
+    }
+
+    /**
+     * Returns a hash of the content compared by {@link #hasSameContent(SpeedDialActionItem)}, except the
+     * {@link Drawable} icon, which isn't saved in the instance state either.
+     */
+    int getContentHash() {
+        int hash = mContentHash;
+        if (hash == 0) {
+            hash = mId;
+            hash = 31 * hash + ObjectsCompat.hashCode(mLabel);
+            hash = 31 * hash + mLabelRes;
+            hash = 31 * hash + ObjectsCompat.hashCode(mContentDescription);
+            hash = 31 * hash + mContentDescriptionRes;
+            hash = 31 * hash + mFabImageResource;
+            hash = 31 * hash + mFabImageTintColor;
+            hash = 31 * hash + (mFabImageTint ? 1 : 0);
+            hash = 31 * hash + ObjectsCompat.hashCode(mFabType);
+            hash = 31 * hash + mFabBackgroundColor;
+            hash = 31 * hash + mLabelColor;
+            hash = 31 * hash + mLabelBackgroundColor;
+            hash = 31 * hash + (mLabelClickable ? 1 : 0);
+            hash = 31 * hash + (mEnabled ? 1 : 0);
+            hash = 31 * hash + mFabSize;
+            hash = 31 * hash + mTheme;
+            // 0 means not computed yet
+            hash = hash == 0 ? 1 : hash;
+            mContentHash = hash;
+        }
+        return hash;
+    }
+
+    boolean hasSameLabel(SpeedDialActionItem other) {
+        return mLabelRes == other.mLabelRes && ObjectsCompat.equals(mLabel, other.mLabel);
+    }
+
+    boolean hasSameContentDescription(SpeedDialActionItem other) {
+        return mContentDescriptionRes == other.mContentDescriptionRes
+                && ObjectsCompat.equals(mContentDescription, other.mContentDescription);
+    }
+
+    boolean hasSameFabImage(SpeedDialActionItem other) {
+        return mFabImageResource == other.mFabImageResource && mFabImageDrawable == other.mFabImageDrawable;
+    }
+
     public FabWithLabelView createFabWithLabelView(Context context) {
         FabWithLabelView fabWithLabelView;
         int theme = getTheme();
@@ -220,6 +295,7 @@ public class SpeedDialActionItem implements Parcelable {
         @ColorInt
         private int mLabelBackgroundColor = RESOURCE_NOT_SET;
         private boolean mLabelClickable = true;
+        private boolean mEnabled = true;
         @FloatingActionButton.Size
         private int mFabSize = SIZE_AUTO;
         @StyleRes
@@ -274,6 +350,7 @@ public class SpeedDialActionItem implements Parcelable {
             mLabelColor = speedDialActionItem.mLabelColor;
             mLabelBackgroundColor = speedDialActionItem.mLabelBackgroundColor;
             mLabelClickable = speedDialActionItem.mLabelClickable;
+            mEnabled = speedDialActionItem.mEnabled;
             mFabSize = speedDialActionItem.mFabSize;
             mTheme = speedDialActionItem.mTheme;
         }
@@ -344,6 +421,11 @@ public class SpeedDialActionItem implements Parcelable {
             return this;
         }
 
+        public Builder setEnabled(boolean enabled) {
+            mEnabled = enabled;
+            return this;
+        }
+
         public Builder setTheme(int mTheme) {
             this.mTheme = mTheme;
             return this;
@@ -380,6 +462,7 @@ public class SpeedDialActionItem implements Parcelable {
         dest.writeInt(this.mLabelColor);
         dest.writeInt(this.mLabelBackgroundColor);
         dest.writeByte(this.mLabelClickable ? (byte) 1 : (byte) 0);
+        dest.writeByte(this.mEnabled ? (byte) 1 : (byte) 0);
         dest.writeInt(this.mFabSize);
         dest.writeInt(this.mTheme);
     }
@@ -399,6 +482,7 @@ public class SpeedDialActionItem implements Parcelable {
         this.mLabelColor = in.readInt();
         this.mLabelBackgroundColor = in.readInt();
         this.mLabelClickable = in.readByte() != 0;
+        this.mEnabled = in.readByte() != 0;
         this.mFabSize = in.readInt();
         this.mTheme = in.readInt();
     }
@@ -16,8 +16,12 @@
 
 package com.leinardi.android.speeddial;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.util.AttributeSet;
 import android.util.Log;
@@ -28,12 +32,28 @@ import androidx.annotation.AttrRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.res.ResourcesCompat;
+import androidx.core.view.ViewCompat;
+import androidx.interpolator.view.animation.FastOutSlowInInterpolator;
 
 @SuppressWarnings({"unused", "WeakerAccess"})
 public class SpeedDialOverlayLayout extends RelativeLayout {
     private static final String TAG = SpeedDialOverlayLayout.class.getSimpleName();
     private boolean mClickableOverlay;
     private int mAnimationDuration;
+    private boolean mScrimMode = true;
+    /**
+     * Alpha of the background in scrim mode, from 0 (hidden) to 1.
+     */
+    private float mScrimProgress = 0F;
+    private float mScrimFromProgress;
+    private float mScrimToProgress;
+    private boolean mScrimAnimationCanceled;
+    @Nullable
+    private ValueAnimator mScrimAnimator;
+    @SpeedDialView.AnimationPolicy
+    private int mAnimationPolicy = SpeedDialView.AnimationPolicy.AUTO;
+    @Nullable
+    private AnimationPolicyMonitor mAnimationPolicyMonitor;
     @Nullable
     private OnClickListener mClickListener;
 
@@ -70,12 +90,68 @@ public class SpeedDialOverlayLayout extends RelativeLayout {
         mAnimationDuration = animationDuration;
     }
 
+    @SpeedDialView.AnimationPolicy
+    public int getAnimationPolicy() {
+        return mAnimationPolicy;
+    }
+
+    /**
+     * Sets the {@link SpeedDialView.AnimationPolicy} used by {@link #show()} and {@link #hide()}. The overlay is
+     * faded unless the resolved policy is {@link SpeedDialView.AnimationPolicy#NONE}.
+     */
+    public void setAnimationPolicy(@SpeedDialView.AnimationPolicy int animationPolicy) {
+        mAnimationPolicy = animationPolicy;
+        updateAnimationPolicyMonitor();
+    }
+
+    public boolean isScrimMode() {
+        return mScrimMode;
+    }
+
+    /**
+     * Enables or disables the scrim mode, enabled by default. In scrim mode, an overlay without children is shown and
+     * hidden by animating the alpha of its background instead of the alpha of the view: nothing is rendered in an
+     * offscreen layer, which for a full screen overlay would be several megabytes, just to fade a color. An overlay
+     * with children is always faded as a whole.
+     *
+     * @param scrimMode True to enable the scrim mode, false otherwise.
+     */
+    public void setScrimMode(boolean scrimMode) {
+        if (mScrimMode != scrimMode) {
+            cancelAnimations();
+            mScrimMode = scrimMode;
+            applyScrimProgress(1F);
+            setAlpha(1F);
+        }
+    }
+
+    @Override
+    public boolean hasOverlappingRendering() {
+        // A solid background alone can be faded without an offscreen layer. The super implementation only exists
+        // from Android 4.1, where this method is called at all
+        return getChildCount() > 0
+                && (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN || super.hasOverlappingRendering());
+    }
+
     public void show() {
-        show(true);
+        show(isAnimationEnabled());
     }
 
     public void show(boolean animate) {
-        if (animate) {
+        if (isScrimEnabled()) {
+            if (animate) {
+                if (getVisibility() != VISIBLE) {
+                    applyScrimProgress(0F);
+                    setVisibility(VISIBLE);
+                }
+                animateScrim(1F, ResourceCache.getInteger(getContext(), R.integer.sd_open_animation_duration));
+            } else {
+                cancelAnimations();
+                setAlpha(1F);
+                applyScrimProgress(1F);
+                setVisibility(VISIBLE);
+            }
+        } else if (animate) {
             UiUtils.fadeInAnim(this);
         } else {
             setVisibility(VISIBLE);
@@ -83,17 +159,149 @@ public class SpeedDialOverlayLayout extends RelativeLayout {
     }
 
     public void hide() {
-        hide(true);
+        hide(isAnimationEnabled());
+    }
+
+    private boolean isAnimationEnabled() {
+        if (mAnimationPolicy != SpeedDialView.AnimationPolicy.AUTO) {
+            return mAnimationPolicy != SpeedDialView.AnimationPolicy.NONE;
+        }
+        return getAnimationPolicyMonitor().getSystemPolicy() != SpeedDialView.AnimationPolicy.NONE;
+    }
+
+    private AnimationPolicyMonitor getAnimationPolicyMonitor() {
+        AnimationPolicyMonitor animationPolicyMonitor = mAnimationPolicyMonitor;
+        if (animationPolicyMonitor == null) {
+            animationPolicyMonitor = new AnimationPolicyMonitor(getContext());
+            mAnimationPolicyMonitor = animationPolicyMonitor;
+        }
+        return animationPolicyMonitor;
+    }
+
+    /**
+     * Listens to the system settings only while they matter: when attached and using
+     * {@link SpeedDialView.AnimationPolicy#AUTO}.
+     */
+    private void updateAnimationPolicyMonitor() {
+        if (mAnimationPolicy == SpeedDialView.AnimationPolicy.AUTO && ViewCompat.isAttachedToWindow(this)) {
+            getAnimationPolicyMonitor().register();
+        } else if (mAnimationPolicyMonitor != null) {
+            mAnimationPolicyMonitor.unregister();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateAnimationPolicyMonitor();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (mAnimationPolicyMonitor != null) {
+            mAnimationPolicyMonitor.unregister();
+        }
+        super.onDetachedFromWindow();
     }
 
     public void hide(boolean animate) {
-        if (animate) {
+        if (isScrimEnabled()) {
+            if (animate && getVisibility() == VISIBLE) {
+                animateScrim(0F, ResourceCache.getInteger(getContext(), R.integer.sd_close_animation_duration));
+            } else {
+                cancelAnimations();
+                setVisibility(GONE);
+            }
+        } else if (animate) {
             UiUtils.fadeOutAnim(this);
         } else {
             setVisibility(GONE);
         }
     }
 
+    /**
+     * Shows the overlay at the given progress, from 0 (hidden) to 1 (shown), canceling its animations. Used to follow
+     * a gesture; {@link #show(boolean)} and {@link #hide(boolean)} then animate from this progress.
+     */
+    void seek(float progress) {
+        cancelAnimations();
+        setVisibility(VISIBLE);
+        if (isScrimEnabled()) {
+            setAlpha(1F);
+            applyScrimProgress(progress);
+        } else {
+            setAlpha(progress);
+        }
+    }
+
+    private boolean isScrimEnabled() {
+        return mScrimMode && getChildCount() == 0;
+    }
+
+    private void cancelAnimations() {
+        UiUtils.cancelFadeAnim(this);
+        if (mScrimAnimator != null) {
+            mScrimAnimator.cancel();
+        }
+    }
+
+    /**
+     * Animates the scrim from its current progress, in the part of the full duration it covers.
+     */
+    private void animateScrim(float toProgress, long fullDuration) {
+        cancelAnimations();
+        setAlpha(1F);
+        mScrimFromProgress = mScrimProgress;
+        mScrimToProgress = toProgress;
+        ValueAnimator scrimAnimator = getScrimAnimator();
+        scrimAnimator.setDuration((long) (fullDuration * Math.abs(toProgress - mScrimFromProgress)));
+        scrimAnimator.start();
+    }
+
+    private ValueAnimator getScrimAnimator() {
+        ValueAnimator scrimAnimator = mScrimAnimator;
+        if (scrimAnimator == null) {
+            scrimAnimator = ValueAnimator.ofFloat(0F, 1F);
+            scrimAnimator.setInterpolator(new FastOutSlowInInterpolator());
+            scrimAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    applyScrimProgress(mScrimFromProgress
+                            + (mScrimToProgress - mScrimFromProgress) * animation.getAnimatedFraction());
+                }
+            });
+            scrimAnimator.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationStart(Animator animation) {
+                    mScrimAnimationCanceled = false;
+                }
+
+                @Override
+                public void onAnimationCancel(Animator animation) {
+                    mScrimAnimationCanceled = true;
+                }
+
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    if (!mScrimAnimationCanceled && mScrimToProgress == 0F) {
+                        setVisibility(GONE);
+                    }
+                }
+            });
+            mScrimAnimator = scrimAnimator;
+        }
+        return scrimAnimator;
+    }
+
+    private void applyScrimProgress(float progress) {
+        mScrimProgress = progress;
+        Drawable background = getBackground();
+        if (background != null) {
+            // Modulates the alpha of the color. Mutating only the first time, so that a shared drawable isn't changed
+            background.mutate().setAlpha(Math.round(progress * 255));
+        }
+    }
+
     @Override
     public void setOnClickListener(@Nullable OnClickListener clickListener) {
         mClickListener = clickListener;
@@ -106,6 +314,7 @@ public class SpeedDialOverlayLayout extends RelativeLayout {
         try {
             overlayColor = attr.getColor(R.styleable.SpeedDialOverlayLayout_android_background, overlayColor);
             mClickableOverlay = attr.getBoolean(R.styleable.SpeedDialOverlayLayout_clickable_overlay, true);
+            mScrimMode = attr.getBoolean(R.styleable.SpeedDialOverlayLayout_scrim_mode, true);
         } catch (Exception e) {
             Log.e(TAG, "Failure setting FabOverlayLayout attrs", e);
         } finally {
@@ -18,25 +18,30 @@ package com.leinardi.android.speeddial;
 
 import android.content.Context;
 import android.content.res.ColorStateList;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
 import android.graphics.Rect;
 import android.graphics.drawable.AnimatedVectorDrawable;
+import android.graphics.drawable.Animatable;
 import android.graphics.drawable.AnimationDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
-import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.Gravity;
-import android.view.Menu;
-import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.animation.Animation;
-import android.view.animation.AnimationUtils;
+import android.view.ViewParent;
+import android.view.ViewConfiguration;
+import android.view.ViewTreeObserver;
+import android.view.animation.Interpolator;
 import android.widget.LinearLayout;
 
 import androidx.annotation.ColorInt;
@@ -48,11 +53,12 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.content.res.AppCompatResources;
-import androidx.appcompat.widget.PopupMenu;
-import androidx.cardview.widget.CardView;
 import androidx.coordinatorlayout.widget.CoordinatorLayout;
 import androidx.core.view.ViewCompat;
+import androidx.core.view.ViewPropertyAnimatorUpdateListener;
 import androidx.core.widget.ImageViewCompat;
+import androidx.interpolator.view.animation.FastOutSlowInInterpolator;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.vectordrawable.graphics.drawable.AnimatedVectorDrawableCompat;
 import com.google.android.material.appbar.AppBarLayout;
@@ -67,10 +73,17 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 
 import static com.leinardi.android.speeddial.SpeedDialActionItem.RESOURCE_NOT_SET;
+import static com.leinardi.android.speeddial.SpeedDialView.AnimationPolicy.AUTO;
+import static com.leinardi.android.speeddial.SpeedDialView.AnimationPolicy.FULL;
+import static com.leinardi.android.speeddial.SpeedDialView.AnimationPolicy.NONE;
+import static com.leinardi.android.speeddial.SpeedDialView.AnimationPolicy.REDUCED;
+import static com.leinardi.android.speeddial.SpeedDialView.AnimationState.CLOSED;
+import static com.leinardi.android.speeddial.SpeedDialView.AnimationState.CLOSING;
+import static com.leinardi.android.speeddial.SpeedDialView.AnimationState.OPEN;
+import static com.leinardi.android.speeddial.SpeedDialView.AnimationState.OPENING;
 import static com.leinardi.android.speeddial.SpeedDialView.ExpansionMode.BOTTOM;
 import static com.leinardi.android.speeddial.SpeedDialView.ExpansionMode.LEFT;
 import static com.leinardi.android.speeddial.SpeedDialView.ExpansionMode.RIGHT;
@@ -80,15 +93,180 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
 @SuppressWarnings({"unused", "WeakerAccess", "UnusedReturnValue"})
 public class SpeedDialView extends LinearLayout implements CoordinatorLayout.AttachedBehavior {
     private static final String TAG = SpeedDialView.class.getSimpleName();
-    private static final String STATE_KEY_SUPER = "superState";
     private static final String STATE_KEY_IS_OPEN = "isOpen";
     private static final String STATE_KEY_EXPANSION_MODE = "expansionMode";
     private static final int DEFAULT_ROTATE_ANGLE = 45;
     private static final int ACTION_ANIM_DELAY = 25;
     private static final int MAIN_FAB_HORIZONTAL_MARGIN_IN_DP = 4;
     private static final int MAIN_FAB_VERTICAL_MARGIN_IN_DP = -2;
+    /**
+     * Default {@link ActionItemProgressCurve}: each action item animates linearly, starting {@code stagger} after the
+     * previous one.
+     */
+    public static final ActionItemProgressCurve STAGGERED_PROGRESS_CURVE = new ActionItemProgressCurve() {
+        @Override
+        public float getItemProgress(int index, int count, float progress, float stagger) {
+            float itemDuration = 1F - (count - 1) * stagger;
+            if (itemDuration <= 0F) {
+                return progress;
+            }
+            return Math.max(0F, Math.min(1F, (progress - index * stagger) / itemDuration));
+        }
+    };
     private final InstanceState mInstanceState = new InstanceState();
+    @Nullable
+    private SparseIntArray mRestoredContentHashes;
     private List<FabWithLabelView> mFabWithLabelViews = new ArrayList<>();
+    private final SparseArray<FabWithLabelView> mFabWithLabelViewsById = new SparseArray<>();
+    private final SparseIntArray mActionItemPositionsById = new SparseIntArray();
+    private boolean mActionItemPositionsDirty = false;
+    private int mBatchUpdateDepth = 0;
+    private final ArrayList<FabWithLabelView> mBatchAddedViews = new ArrayList<>();
+    private final ArrayList<FabWithLabelView> mBatchRemovedViews = new ArrayList<>();
+    private FabWithLabelViewPool mFabWithLabelViewPool = new FabWithLabelViewPool();
+    private boolean mLazyInflation = false;
+    /**
+     * Action items added in lazy inflation mode, whose views will be inflated on the first open. Null once the
+     * views have been inflated.
+     */
+    @Nullable
+    private ArrayList<SpeedDialActionItem> mPendingActionItems = null;
+    /**
+     * Views created by {@link AsyncFabWithLabelViewInflater}, used by {@link #addActionItem} while an asynchronous
+     * inflation is being applied.
+     */
+    @Nullable
+    private SparseArray<FabWithLabelView> mPrebuiltFabWithLabelViews = null;
+    /**
+     * Incremented by every change of the action items and when the view is detached, so that the results of the
+     * asynchronous inflations requested before are dropped instead of overwriting the newer content.
+     */
+    private int mAsyncGeneration = 0;
+    private boolean mPrewarmOnIdle = false;
+    private boolean mPrewarmScheduled = false;
+    private final DrawableRasterCache mMainFabOpenedRasterCache = new DrawableRasterCache();
+    @Nullable
+    private ColorTransition mMainFabBackgroundColorTransition;
+    @Nullable
+    private ColorTransition mMainFabIconColorTransition;
+    private boolean mMainFabColorCrossFade = false;
+    private final ViewPropertyAnimatorUpdateListener mMainFabRotationUpdateListener =
+            new ViewPropertyAnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(View view) {
+                    float angle = getMainFabAnimationRotateAngle();
+                    if (angle != 0) {
+                        applyMainFabColorProgress(view.getRotation() / angle);
+                    }
+                }
+            };
+    @ColorInt
+    private int mDefaultMainFabBackgroundColor;
+    private boolean mDefaultMainFabBackgroundColorResolved = false;
+    private final MessageQueue.IdleHandler mPrewarmIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mPrewarmScheduled = false;
+            prewarm();
+            return false;
+        }
+    };
+    private final ViewTreeObserver.OnPreDrawListener mPrewarmPreDrawListener =
+            new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    getViewTreeObserver().removeOnPreDrawListener(this);
+                    // The idle handler runs once the first frame has been drawn and the queue is empty
+                    Looper.myQueue().addIdleHandler(mPrewarmIdleHandler);
+                    return true;
+                }
+            };
+    @Nullable
+    private ActionItemAnimator mActionItemAnimator;
+    private final ActionItemChoreographer mActionItemChoreographer = new ActionItemChoreographer();
+    @Nullable
+    private ActionItemChoreographer mBatchChoreographer;
+    private ActionItemProgressCurve mActionItemProgressCurve = STAGGERED_PROGRESS_CURVE;
+    private int mMaxAnimationDuration = 0;
+    private final ArrayList<FabWithLabelView> mLaidOutActionItemViews = new ArrayList<>();
+    private long mChoreographyDuration;
+    private float mChoreographyStagger;
+    private boolean mCloseSeeking = false;
+    @AnimationPolicy
+    private int mAnimationPolicy = AUTO;
+    /**
+     * Policy resolved by the last toggle, used by all the animations it started.
+     */
+    @AnimationPolicy
+    private int mAppliedAnimationPolicy = FULL;
+    @Nullable
+    private AnimationPolicyMonitor mAnimationPolicyMonitor;
+    @Nullable
+    private AnimationQualityController mAnimationQualityController;
+    /**
+     * Frames of the running open animation measured by {@link #mAnimationQualityController}, null otherwise.
+     */
+    @Nullable
+    private AnimationQualityController.Measurement mQualityMeasurement;
+    private boolean mVirtualized = false;
+    /**
+     * List displaying the action items in virtualized mode, null otherwise.
+     */
+    @Nullable
+    private ActionItemsRecyclerView mActionItemsRecyclerView;
+    private final ActionItemsAdapter mActionItemsAdapter = new ActionItemsAdapter();
+    private boolean mActionItemsChangedInBatch = false;
+    private boolean mShowActionItemsScheduled = false;
+    private final ViewTreeObserver.OnPreDrawListener mShowActionItemsPreDrawListener =
+            new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    getViewTreeObserver().removeOnPreDrawListener(this);
+                    mShowActionItemsScheduled = false;
+                    RecyclerView recyclerView = mActionItemsRecyclerView;
+                    if (recyclerView != null && mAppliedOpen) {
+                        // The children are laid out only now, and only the visible ones exist
+                        startActionItemChoreography(getLaidOutActionItemViews(recyclerView), true, true,
+                                mActionItemsAnimationEndRunnable);
+                    }
+                    return true;
+                }
+            };
+    /**
+     * Open state applied to the views, which can be behind {@link #isOpen()} until the next frame, see
+     * {@link #toggle(boolean, boolean)}.
+     */
+    private boolean mAppliedOpen = false;
+    /**
+     * Open state last notified to {@link OnChangeListener#onToggleChanged(boolean)}, which follows {@link #isOpen()}
+     * synchronously.
+     */
+    private boolean mNotifiedOpen = false;
+    @AnimationState
+    private int mAnimationState = CLOSED;
+    private boolean mToggleScheduled = false;
+    private final Runnable mToggleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mToggleScheduled = false;
+            applyToggle(isOpen(), true);
+        }
+    };
+    private final Runnable mActionItemsAnimationEndRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mAnimationState = mAppliedOpen ? OPEN : CLOSED;
+            AnimationQualityController.Measurement measurement = mQualityMeasurement;
+            if (mAppliedOpen && mAnimationQualityController != null && measurement != null) {
+                mAnimationQualityController.endSample(measurement);
+                mQualityMeasurement = null;
+            }
+            RecyclerView recyclerView = mActionItemsRecyclerView;
+            if (recyclerView != null && !mAppliedOpen) {
+                recyclerView.setVisibility(GONE);
+            }
+        }
+    };
     @Nullable
     private Drawable mMainFabClosedDrawable = null;
     @Nullable
@@ -142,6 +320,201 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
         mInstanceState.mUseReverseAnimationOnClose = useReverseAnimation;
     }
 
+    public boolean getLazyInflation() {
+        return mLazyInflation;
+    }
+
+    /**
+     * Enables or disables the lazy inflation of the action items. When enabled, the action items added while the
+     * menu has never been opened are kept as {@link SpeedDialActionItem}s only, and their {@link FabWithLabelView}s
+     * are inflated the first time the menu is opened. It has no effect on action items already inflated.
+     * <p>
+     * While the views are not inflated yet, the methods returning a {@link FabWithLabelView} return null.
+     *
+     * @param lazyInflation true to inflate the action items on the first open, false to inflate them immediately
+     */
+    public void setLazyInflation(boolean lazyInflation) {
+        mLazyInflation = lazyInflation;
+        if (lazyInflation) {
+            if (mPendingActionItems == null && mFabWithLabelViews.isEmpty() && !isOpen()) {
+                mPendingActionItems = new ArrayList<>();
+            }
+        } else {
+            inflatePendingActionItems();
+        }
+    }
+
+    public boolean getPrewarmOnIdle() {
+        return mPrewarmOnIdle;
+    }
+
+    /**
+     * Enables or disables the automatic {@link #prewarm()} of this view. When enabled, the view is prewarmed once
+     * the main thread becomes idle after the first frame drawn while attached to a window.
+     *
+     * @param prewarmOnIdle true to prewarm this view automatically, false otherwise
+     */
+    public void setPrewarmOnIdle(boolean prewarmOnIdle) {
+        mPrewarmOnIdle = prewarmOnIdle;
+        if (prewarmOnIdle) {
+            schedulePrewarm();
+        } else {
+            cancelPrewarm();
+        }
+    }
+
+    /**
+     * Prepares the first opening of the menu ahead of time, so that it costs the same as the following ones: inflates
+     * and measures the action items, loads the animations, resolves the main FAB colors and rasterizes its opened
+     * icon. It can be called multiple times, the work already done is not repeated.
+     */
+    public void prewarm() {
+        inflatePendingActionItems();
+        getActionItemAnimator();
+        getDefaultMainFabBackgroundColor();
+        prepareMainFabColorTransitions();
+        if (!(mMainFabOpenedDrawable instanceof Animatable)) {
+            getMainFabOpenedBitmap();
+        }
+        int measureSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+        for (int i = 0; i < mFabWithLabelViews.size(); i++) {
+            FabWithLabelView fabWithLabelView = mFabWithLabelViews.get(i);
+            if (fabWithLabelView.isLayoutRequested()) {
+                fabWithLabelView.measure(measureSpec, measureSpec);
+            }
+        }
+    }
+
+    public boolean getVirtualized() {
+        return mVirtualized;
+    }
+
+    /**
+     * Enables or disables the virtualized mode, meant for menus with many action items. When enabled, the action
+     * items are kept as {@link SpeedDialActionItem}s and displayed by a scrollable recycling list: only the action
+     * items that fit on screen get a {@link FabWithLabelView}, and only those are animated when the menu is opened or
+     * closed. Changing the mode closes the menu.
+     * <p>
+     * While enabled, the methods returning a {@link FabWithLabelView} return null.
+     *
+     * @param virtualized true to display the action items in a recycling list, false to add a view per action item
+     */
+    public void setVirtualized(boolean virtualized) {
+        if (mVirtualized == virtualized) {
+            return;
+        }
+        close(false);
+        mVirtualized = virtualized;
+        if (virtualized) {
+            ArrayList<SpeedDialActionItem> actionItems = getActionItems();
+            int generation = mAsyncGeneration;
+            clearActionItems();
+            // The action items are only moved to the list, the asynchronous changes are still valid
+            mAsyncGeneration = generation;
+            ArrayList<SpeedDialActionItem> pendingActionItems = new ArrayList<>(actionItems.size());
+            mPendingActionItems = pendingActionItems;
+            mActionItemPositionsById.clear();
+            mActionItemPositionsDirty = false;
+            for (int i = 0; i < actionItems.size(); i++) {
+                registerPendingActionItem(pendingActionItems, i, actionItems.get(i));
+            }
+            mActionItemsRecyclerView = createActionItemsRecyclerView();
+            reorderActionItemViews();
+        } else {
+            RecyclerView recyclerView = mActionItemsRecyclerView;
+            if (recyclerView != null) {
+                mActionItemsRecyclerView = null;
+                removeView(recyclerView);
+                recyclerView.setAdapter(null);
+            }
+            if (!mLazyInflation) {
+                inflatePendingActionItems();
+            }
+        }
+    }
+
+    public ActionItemProgressCurve getActionItemProgressCurve() {
+        return mActionItemProgressCurve;
+    }
+
+    /**
+     * Sets the curve giving the progress of each action item during the open and close animations, which are driven
+     * by a single timeline.
+     *
+     * @param progressCurve the curve to use, or null to use {@link #STAGGERED_PROGRESS_CURVE}
+     */
+    public void setActionItemProgressCurve(@Nullable ActionItemProgressCurve progressCurve) {
+        mActionItemProgressCurve = progressCurve != null ? progressCurve : STAGGERED_PROGRESS_CURVE;
+    }
+
+    public int getMaxAnimationDuration() {
+        return mMaxAnimationDuration;
+    }
+
+    /**
+     * Sets the maximum duration of the open and close animations, in milliseconds. When staggering the action items
+     * would take longer, the delay between them is reduced, so that large menus don't take longer to open.
+     *
+     * @param maxAnimationDuration the maximum duration in milliseconds, or 0 for no maximum
+     */
+    public void setMaxAnimationDuration(int maxAnimationDuration) {
+        mMaxAnimationDuration = Math.max(0, maxAnimationDuration);
+    }
+
+    @AnimationPolicy
+    public int getAnimationPolicy() {
+        return mAnimationPolicy;
+    }
+
+    /**
+     * Sets how much the speed dial animates. {@link AnimationPolicy#REDUCED} fades the action items in and out without
+     * stagger, scale or translation and doesn't animate the main fab rotation. {@link AnimationPolicy#NONE} doesn't
+     * animate at all. {@link AnimationPolicy#AUTO}, the default, picks one of them from the animator duration scale
+     * and the battery saver, and follows their changes.
+     *
+     * @param animationPolicy the {@link AnimationPolicy} to use
+     */
+    public void setAnimationPolicy(@AnimationPolicy int animationPolicy) {
+        mAnimationPolicy = animationPolicy;
+        SpeedDialOverlayLayout overlayLayout = mOverlayLayout;
+        if (overlayLayout != null) {
+            overlayLayout.setAnimationPolicy(animationPolicy);
+        }
+        updateAnimationPolicyMonitor();
+    }
+
+    /**
+     * Returns the {@link AnimationPolicy} currently in use, resolving {@link AnimationPolicy#AUTO} from the system
+     * settings.
+     */
+    @AnimationPolicy
+    public int getResolvedAnimationPolicy() {
+        if (mAnimationPolicy != AUTO) {
+            return mAnimationPolicy;
+        }
+        return getAnimationPolicyMonitor().getSystemPolicy();
+    }
+
+    private AnimationPolicyMonitor getAnimationPolicyMonitor() {
+        AnimationPolicyMonitor animationPolicyMonitor = mAnimationPolicyMonitor;
+        if (animationPolicyMonitor == null) {
+            animationPolicyMonitor = new AnimationPolicyMonitor(getContext());
+            mAnimationPolicyMonitor = animationPolicyMonitor;
+        }
+        return animationPolicyMonitor;
+    }
+
+    /**
+     * Listens to the system settings only while they matter: when attached and using {@link AnimationPolicy#AUTO}.
+     */
+    private void updateAnimationPolicyMonitor() {
+        if (mAnimationPolicy == AUTO && ViewCompat.isAttachedToWindow(this)) {
+            getAnimationPolicyMonitor().register();
+        } else if (mAnimationPolicyMonitor != null) {
+            mAnimationPolicyMonitor.unregister();
+        }
+    }
+
     @ExpansionMode
     public int getExpansionMode() {
         return mInstanceState.mExpansionMode;
@@ -171,9 +544,45 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
                     break;
             }
             close(false);
-            ArrayList<SpeedDialActionItem> actionItems = getActionItems();
-            clearActionItems();
-            addAllActionItems(actionItems);
+            reorderActionItemViews();
+        }
+    }
+
+    /**
+     * Moves the main FAB and the action item views to the order required by the current expansion mode, as returned
+     * by {@link #getLayoutPosition(int)}, without recreating them.
+     */
+    private void reorderActionItemViews() {
+        ActionItemsRecyclerView recyclerView = mActionItemsRecyclerView;
+        beginBatchUpdate();
+        try {
+            removeViewInLayout(mMainFab);
+            for (int i = 0; i < mFabWithLabelViews.size(); i++) {
+                removeViewInLayout(mFabWithLabelViews.get(i));
+            }
+            if (recyclerView != null) {
+                removeViewInLayout(recyclerView);
+                updateActionItemsRecyclerView(recyclerView);
+            }
+            if (getExpansionMode() == TOP || getExpansionMode() == LEFT) {
+                for (int i = mFabWithLabelViews.size() - 1; i >= 0; i--) {
+                    attachFabWithLabelView(mFabWithLabelViews.get(i), -1);
+                }
+                if (recyclerView != null) {
+                    addViewInLayout(recyclerView, -1, recyclerView.getLayoutParams(), true);
+                }
+                addViewInLayout(mMainFab, -1, mMainFab.getLayoutParams(), true);
+            } else {
+                addViewInLayout(mMainFab, -1, mMainFab.getLayoutParams(), true);
+                if (recyclerView != null) {
+                    addViewInLayout(recyclerView, -1, recyclerView.getLayoutParams(), true);
+                }
+                for (int i = 0; i < mFabWithLabelViews.size(); i++) {
+                    attachFabWithLabelView(mFabWithLabelViews.get(i), -1);
+                }
+            }
+        } finally {
+            commitBatchUpdate();
         }
     }
 
@@ -186,7 +595,21 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
         show(null);
     }
 
+    /**
+     * Returns true if the main fab is hidden or being hidden, also when it was hidden through {@link #getMainFab()}.
+     */
+    public boolean isOrWillBeHidden() {
+        return getVisibility() != VISIBLE || mMainFab.isOrWillBeHidden();
+    }
+
+    /**
+     * Shows the main fab. Like {@link FloatingActionButton#show(OnVisibilityChangedListener)}, does nothing if it is
+     * already shown or being shown.
+     */
     public void show(@Nullable final OnVisibilityChangedListener listener) {
+        if (!isOrWillBeHidden()) {
+            return;
+        }
         setVisibility(VISIBLE);
         showFabWithWorkaround(mMainFab, listener);
     }
@@ -243,9 +666,24 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
         }
     }
 
+    /**
+     * Closes the speed dial and hides the main fab. Like
+     * {@link FloatingActionButton#hide(OnVisibilityChangedListener)}, does nothing if it is already hidden or being
+     * hidden.
+     */
     public void hide(@Nullable final OnVisibilityChangedListener listener) {
+        if (isOrWillBeHidden() && !isOpen()) {
+            return;
+        }
         if (isOpen()) {
             close();
+        }
+        if (mToggleScheduled) {
+            // Start the close animation now, so that the workaround below isn't overridden on the next frame
+            cancelScheduledToggle();
+            applyToggle(isOpen(), true);
+        }
+        if (mAnimationState == CLOSING) {
             // Workaround for mMainFab.hide() breaking the rotate anim
             ViewCompat.animate(mMainFab).rotation(0).setDuration(0).start();
         }
@@ -285,6 +723,7 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
         }
         mOverlayLayout = overlayLayout;
         if (overlayLayout != null) {
+            overlayLayout.setAnimationPolicy(mAnimationPolicy);
             overlayLayout.setOnClickListener(new OnClickListener() {
                 @Override
                 public void onClick(View view) {
@@ -296,24 +735,19 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     }
 
     /**
-     * Inflate a menu resource into this SpeedDialView. Any existing Action item will be removed.
-     * <p class="note">Using the Menu resource it is possible to specify only the ID, the icon and the label of the
-     * Action item. No color customization is available.</p>
+     * Inflate a menu resource into this SpeedDialView. Any existing Action item will be replaced, see
+     * {@link #setActionItems(List)}: the views of the items with an ID already present are kept.
+     * <p class="note">Besides {@code android:id}, {@code android:icon}, {@code android:title},
+     * {@code android:contentDescription}, {@code android:orderInCategory}, {@code android:theme},
+     * {@code android:visible} and {@code android:enabled}, the items support the attributes {@code app:sdFabType},
+     * {@code app:fabSize}, {@code app:sdFabImageTint}, {@code app:sdFabImageTintColor}, {@code app:fabBackgroundColor},
+     * {@code app:fabLabelColor}, {@code app:fabLabelBackgroundColor} and {@code app:fabLabelClickable}. The parsed
+     * items are cached per theme, so inflating the same menu again doesn't parse it again.</p>
      *
      * @param menuRes Menu resource to inflate
      */
     public void inflate(@MenuRes int menuRes) {
-        clearActionItems();
-        PopupMenu popupMenu = new PopupMenu(getContext(), new View(getContext()));
-        popupMenu.inflate(menuRes);
-        Menu menu = popupMenu.getMenu();
-        for (int i = 0; i < menu.size(); i++) {
-            MenuItem menuItem = menu.getItem(i);
-            SpeedDialActionItem actionItem = new SpeedDialActionItem.Builder(menuItem.getItemId(), menuItem.getIcon())
-                    .setLabel(menuItem.getTitle() != null ? menuItem.getTitle().toString() : null)
-                    .create();
-            addActionItem(actionItem);
-        }
+        setActionItems(ResourceCache.getMenuActionItems(getContext(), menuRes));
     }
 
     /**
@@ -322,12 +756,18 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
      * collection's Iterator.
      *
      * @param actionItemCollection collection containing {@link SpeedDialActionItem} to be added to this list
-     * @return a collection containing the instances of {@link FabWithLabelView} added.
+     * @return a collection containing the instances of {@link FabWithLabelView} added, or null elements if their
+     * inflation has been deferred (see {@link #setLazyInflation(boolean)}).
      */
     public Collection<FabWithLabelView> addAllActionItems(Collection<SpeedDialActionItem> actionItemCollection) {
         ArrayList<FabWithLabelView> fabWithLabelViews = new ArrayList<>();
-        for (SpeedDialActionItem speedDialActionItem : actionItemCollection) {
-            fabWithLabelViews.add(addActionItem(speedDialActionItem));
+        beginBatchUpdate();
+        try {
+            for (SpeedDialActionItem speedDialActionItem : actionItemCollection) {
+                fabWithLabelViews.add(addActionItem(speedDialActionItem));
+            }
+        } finally {
+            commitBatchUpdate();
         }
         return fabWithLabelViews;
     }
@@ -340,7 +780,7 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
      */
     @Nullable
     public FabWithLabelView addActionItem(SpeedDialActionItem speedDialActionItem) {
-        return addActionItem(speedDialActionItem, mFabWithLabelViews.size());
+        return addActionItem(speedDialActionItem, getActionItemCount());
     }
 
     /**
@@ -367,19 +807,31 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
      */
     @Nullable
     public FabWithLabelView addActionItem(SpeedDialActionItem actionItem, int position, boolean animate) {
+        mAsyncGeneration++;
+        if (mPendingActionItems != null) {
+            int oldPosition = indexOfActionItem(actionItem.getId());
+            if (oldPosition >= 0) {
+                mPendingActionItems.set(oldPosition, actionItem);
+            } else {
+                registerPendingActionItem(mPendingActionItems, position, actionItem);
+            }
+            notifyActionItemsChanged();
+            return null;
+        }
         FabWithLabelView oldView = findFabWithLabelViewById(actionItem.getId());
         if (oldView != null) {
             return replaceActionItem(oldView.getSpeedDialActionItem(), actionItem);
         } else {
-            FabWithLabelView newView = actionItem.createFabWithLabelView(getContext());
-            newView.setOrientation(getOrientation() == VERTICAL ? HORIZONTAL : VERTICAL);
-            newView.setOnActionSelectedListener(mOnActionSelectedProxyListener);
-            int layoutPosition = getLayoutPosition(position);
-            addView(newView, layoutPosition);
-            mFabWithLabelViews.add(position, newView);
+            FabWithLabelView newView = obtainActionItemView(actionItem);
+            attachFabWithLabelView(newView, getLayoutPosition(position));
+            registerFabWithLabelView(position, newView);
             if (isOpen()) {
                 if (animate) {
-                    showWithAnimationFabWithLabelView(newView, 0);
+                    if (isBatchUpdating()) {
+                        mBatchAddedViews.add(newView);
+                    } else {
+                        showWithAnimationFabWithLabelView(newView, 0);
+                    }
                 }
             } else {
                 newView.setVisibility(GONE);
@@ -397,7 +849,7 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
      */
     @Nullable
     public SpeedDialActionItem removeActionItem(int position) {
-        SpeedDialActionItem speedDialActionItem = mFabWithLabelViews.get(position).getSpeedDialActionItem();
+        SpeedDialActionItem speedDialActionItem = getActionItem(position);
         removeActionItem(speedDialActionItem);
         return speedDialActionItem;
     }
@@ -425,6 +877,16 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
      */
     @Nullable
     public SpeedDialActionItem removeActionItemById(@IdRes int idRes) {
+        mAsyncGeneration++;
+        if (mPendingActionItems != null) {
+            int position = indexOfActionItem(idRes);
+            if (position < 0) {
+                return null;
+            }
+            SpeedDialActionItem actionItem = unregisterPendingActionItem(mPendingActionItems, position);
+            notifyActionItemsChanged();
+            return actionItem;
+        }
         return removeActionItem(findFabWithLabelViewById(idRes));
     }
 
@@ -438,7 +900,7 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
      */
     @Nullable
     public FabWithLabelView replaceActionItem(SpeedDialActionItem newActionItem, int position) {
-        return replaceActionItem(mFabWithLabelViews.get(position).getSpeedDialActionItem(), newActionItem);
+        return replaceActionItem(getActionItem(position), newActionItem);
     }
 
     /**
@@ -451,18 +913,44 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     @Nullable
     public FabWithLabelView replaceActionItem(@Nullable SpeedDialActionItem oldSpeedDialActionItem,
                                               SpeedDialActionItem newSpeedDialActionItem) {
+        mAsyncGeneration++;
         if (oldSpeedDialActionItem == null) {
             return null;
+        } else if (mPendingActionItems != null) {
+            if (indexOfActionItem(oldSpeedDialActionItem.getId()) >= 0) {
+                if (newSpeedDialActionItem.getId() != oldSpeedDialActionItem.getId()) {
+                    removeActionItemById(newSpeedDialActionItem.getId());
+                }
+                int index = indexOfActionItem(oldSpeedDialActionItem.getId());
+                mPendingActionItems.set(index, newSpeedDialActionItem);
+                mActionItemPositionsById.delete(oldSpeedDialActionItem.getId());
+                mActionItemPositionsById.put(newSpeedDialActionItem.getId(), index);
+                notifyActionItemsChanged();
+            }
+            return null;
         } else {
             FabWithLabelView oldView = findFabWithLabelViewById(oldSpeedDialActionItem.getId());
             if (oldView != null) {
-                int index = mFabWithLabelViews.indexOf(oldView);
-                if (index < 0) {
-                    return null;
+                beginBatchUpdate();
+                try {
+                    if (newSpeedDialActionItem.getId() != oldSpeedDialActionItem.getId()) {
+                        removeActionItem(findFabWithLabelViewById(newSpeedDialActionItem.getId()), false);
+                    }
+                    // Swapped in place: the other items keep their position, so only the replaced ID is reindexed
+                    FabWithLabelView newView = obtainActionItemView(newSpeedDialActionItem);
+                    int layoutPosition = indexOfChild(oldView);
+                    mBatchAddedViews.remove(oldView);
+                    detachFabWithLabelView(oldView);
+                    mFabWithLabelViewPool.putRecycledView(oldView);
+                    attachFabWithLabelView(newView, layoutPosition);
+                    setFabWithLabelView(indexOfActionItem(oldSpeedDialActionItem.getId()), newView);
+                    if (!isOpen()) {
+                        newView.setVisibility(GONE);
+                    }
+                    return newView;
+                } finally {
+                    commitBatchUpdate();
                 }
-                removeActionItem(findFabWithLabelViewById(newSpeedDialActionItem.getId()), null, false);
-                removeActionItem(findFabWithLabelViewById(oldSpeedDialActionItem.getId()), null, false);
-                return addActionItem(newSpeedDialActionItem, index, false);
             } else {
                 return null;
             }
@@ -470,59 +958,416 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     }
 
     /**
-     * Removes all of the {@link SpeedDialActionItem} from this list.
+     * Replaces the content of this list with the given {@link SpeedDialActionItem}s, matching them by ID with the
+     * ones already added. The views of the items that are still present are kept: changed items are rebound in place
+     * and moved items are reordered, only the new items are inflated and only the missing ones are removed.
+     *
+     * @param actionItems the new content of this list. Items with an ID already present earlier in the list are
+     *                    ignored.
      */
-    public void clearActionItems() {
-        Iterator<FabWithLabelView> it = mFabWithLabelViews.iterator();
-        while (it.hasNext()) {
-            FabWithLabelView fabWithLabelView = it.next();
-            removeActionItem(fabWithLabelView, it, true);
+    public void setActionItems(List<SpeedDialActionItem> actionItems) {
+        mAsyncGeneration++;
+        SparseArray<SpeedDialActionItem> actionItemsById = new SparseArray<>(actionItems.size());
+        for (int i = 0; i < actionItems.size(); i++) {
+            SpeedDialActionItem actionItem = actionItems.get(i);
+            if (actionItemsById.get(actionItem.getId()) == null) {
+                actionItemsById.put(actionItem.getId(), actionItem);
+            }
         }
-    }
-
-    @NonNull
-    public ArrayList<SpeedDialActionItem> getActionItems() {
-        ArrayList<SpeedDialActionItem> speedDialActionItems = new ArrayList<>(mFabWithLabelViews.size());
-        for (FabWithLabelView fabWithLabelView : mFabWithLabelViews) {
-            speedDialActionItems.add(fabWithLabelView.getSpeedDialActionItem());
+        ArrayList<SpeedDialActionItem> pendingActionItems = mPendingActionItems;
+        if (pendingActionItems != null) {
+            beginBatchUpdate();
+            try {
+                clearActionItems();
+                for (int i = 0; i < actionItems.size(); i++) {
+                    SpeedDialActionItem actionItem = actionItems.get(i);
+                    if (actionItemsById.get(actionItem.getId()) == actionItem) {
+                        registerPendingActionItem(pendingActionItems, pendingActionItems.size(), actionItem);
+                    }
+                }
+                notifyActionItemsChanged();
+            } finally {
+                commitBatchUpdate();
+            }
+            return;
+        }
+        beginBatchUpdate();
+        try {
+            for (int i = mFabWithLabelViews.size() - 1; i >= 0; i--) {
+                FabWithLabelView view = mFabWithLabelViews.get(i);
+                if (actionItemsById.get(view.getId()) == null) {
+                    removeActionItem(view, true);
+                }
+            }
+            int position = 0;
+            for (int i = 0; i < actionItems.size(); i++) {
+                SpeedDialActionItem actionItem = actionItems.get(i);
+                if (actionItemsById.get(actionItem.getId()) != actionItem) {
+                    continue;
+                }
+                FabWithLabelView view = findFabWithLabelViewById(actionItem.getId());
+                if (view == null) {
+                    addActionItem(actionItem, position, true);
+                } else {
+                    SpeedDialActionItem oldActionItem = view.getSpeedDialActionItem();
+                    if (!canRebind(oldActionItem, actionItem)) {
+                        replaceActionItem(oldActionItem, actionItem);
+                    } else if (oldActionItem != actionItem && !oldActionItem.hasSameContent(actionItem)) {
+                        view.setSpeedDialActionItem(actionItem);
+                    }
+                    moveActionItem(actionItem.getId(), position);
+                }
+                position++;
+            }
+        } finally {
+            commitBatchUpdate();
         }
-        return speedDialActionItems;
-    }
-
-    @NonNull
-    @Override
-    public CoordinatorLayout.Behavior getBehavior() {
-        return new SnackbarBehavior();
     }
 
     /**
-     * Set a listener that will be notified when a menu fab is selected.
+     * Asynchronous version of {@link #addActionItem(SpeedDialActionItem)}: the {@link FabWithLabelView} is created on
+     * a background thread and added on the main thread. If it can't be created off the main thread, it is created
+     * synchronously when added.
+     * <p>
+     * The asynchronous changes are applied in the order they were requested. The result is dropped, and the listener
+     * is not notified, if meanwhile the action items are changed synchronously, {@link #setActionItemsAsync} is
+     * called or the view is detached: only the asynchronous additions requested after the latest of these events
+     * are applied.
      *
-     * @param listener listener to set.
+     * @param actionItem {@link SpeedDialActionItem} to be appended to this list
+     * @param listener   listener notified once the action item has been added, or null
      */
-    public void setOnActionSelectedListener(@Nullable OnActionSelectedListener listener) {
-        mOnActionSelectedListener = listener;
-
-        for (int index = 0; index < mFabWithLabelViews.size(); index++) {
-            final FabWithLabelView fabWithLabelView = mFabWithLabelViews.get(index);
-            fabWithLabelView.setOnActionSelectedListener(mOnActionSelectedProxyListener);
+    public void addActionItemAsync(final SpeedDialActionItem actionItem,
+                                   @Nullable final OnActionItemsInflatedListener listener) {
+        final int generation = mAsyncGeneration;
+        if (mPendingActionItems != null) {
+            addActionItem(actionItem);
+            // An asynchronous addition doesn't make the other ones stale
+            mAsyncGeneration = generation;
+            if (listener != null) {
+                listener.onActionItemsInflated();
+            }
+            return;
         }
+        ArrayList<SpeedDialActionItem> actionItems = new ArrayList<>(1);
+        actionItems.add(actionItem);
+        AsyncFabWithLabelViewInflater.inflate(getContext(), actionItems, new AsyncFabWithLabelViewInflater.Callback() {
+            @Override
+            public void onInflateFinished(SparseArray<FabWithLabelView> fabWithLabelViews) {
+                if (generation != mAsyncGeneration) {
+                    recyclePrebuiltFabWithLabelViews(fabWithLabelViews);
+                    return;
+                }
+                mPrebuiltFabWithLabelViews = fabWithLabelViews;
+                try {
+                    addActionItem(actionItem);
+                } finally {
+                    recyclePrebuiltFabWithLabelViews(fabWithLabelViews);
+                    mAsyncGeneration = generation;
+                }
+                if (listener != null) {
+                    listener.onActionItemsInflated();
+                }
+            }
+        });
     }
 
     /**
-     * Set Main FloatingActionButton ClickMOnOptionFabSelectedListener.
+     * Asynchronous version of {@link #setActionItems(List)}: the {@link FabWithLabelView}s of the new action items
+     * are created on a background thread and the whole list is applied on the main thread in a single batch. The
+     * views that can't be created off the main thread are created synchronously when applied.
+     * <p>
+     * The asynchronous changes are applied in the order they were requested. The result is dropped, and the listener
+     * is not notified, if meanwhile the action items are changed synchronously, this method is called again or the
+     * view is detached, so that a stale list never overwrites a newer one.
      *
-     * @param onChangeListener listener to set.
+     * @param actionItems the new content of this list
+     * @param listener    listener notified once the list has been applied, or null
      */
-    public void setOnChangeListener(@Nullable final OnChangeListener onChangeListener) {
-        mOnChangeListener = onChangeListener;
+    public void setActionItemsAsync(List<SpeedDialActionItem> actionItems,
+                                    @Nullable final OnActionItemsInflatedListener listener) {
+        final int generation = ++mAsyncGeneration;
+        final ArrayList<SpeedDialActionItem> newActionItems = new ArrayList<>(actionItems);
+        ArrayList<SpeedDialActionItem> actionItemsToInflate = new ArrayList<>();
+        if (mPendingActionItems == null) {
+            for (int i = 0; i < newActionItems.size(); i++) {
+                SpeedDialActionItem actionItem = newActionItems.get(i);
+                FabWithLabelView view = findFabWithLabelViewById(actionItem.getId());
+                if (view == null || !canRebind(view.getSpeedDialActionItem(), actionItem)) {
+                    actionItemsToInflate.add(actionItem);
+                }
+            }
+        }
+        if (actionItemsToInflate.isEmpty()) {
+            setActionItems(newActionItems);
+            if (listener != null) {
+                listener.onActionItemsInflated();
+            }
+            return;
+        }
+        AsyncFabWithLabelViewInflater.inflate(getContext(), actionItemsToInflate,
+                new AsyncFabWithLabelViewInflater.Callback() {
+                    @Override
+                    public void onInflateFinished(SparseArray<FabWithLabelView> fabWithLabelViews) {
+                        if (generation != mAsyncGeneration) {
+                            recyclePrebuiltFabWithLabelViews(fabWithLabelViews);
+                            return;
+                        }
+                        mPrebuiltFabWithLabelViews = fabWithLabelViews;
+                        try {
+                            setActionItems(newActionItems);
+                        } finally {
+                            recyclePrebuiltFabWithLabelViews(fabWithLabelViews);
+                            // The additions requested after this call must still be applied
+                            mAsyncGeneration = generation;
+                        }
+                        if (listener != null) {
+                            listener.onActionItemsInflated();
+                        }
+                    }
+                });
     }
 
     /**
-     * Opens speed dial menu.
+     * Moves the {@link SpeedDialActionItem} with the given ID to the specified position in this list, without
+     * recreating its view.
+     *
+     * @param idRes    the ID of the {@link SpeedDialActionItem} to move
+     * @param position the index the {@link SpeedDialActionItem} will have after the move
+     * @return true if this list contained the {@link SpeedDialActionItem}, false otherwise
      */
-    public void open() {
-        toggle(true, true);
+    public boolean moveActionItem(@IdRes int idRes, int position) {
+        mAsyncGeneration++;
+        int oldPosition = indexOfActionItem(idRes);
+        if (oldPosition < 0) {
+            return false;
+        }
+        if (oldPosition != position && mPendingActionItems != null) {
+            mPendingActionItems.add(position, mPendingActionItems.remove(oldPosition));
+            updateActionItemPositions(oldPosition, position);
+            notifyActionItemsChanged();
+        } else if (oldPosition != position) {
+            FabWithLabelView view = mFabWithLabelViews.remove(oldPosition);
+            detachFabWithLabelView(view);
+            attachFabWithLabelView(view, getLayoutPosition(position));
+            mFabWithLabelViews.add(position, view);
+            updateActionItemPositions(oldPosition, position);
+        }
+        return true;
+    }
+
+    /**
+     * Removes all of the {@link SpeedDialActionItem} from this list.
+     */
+    public void clearActionItems() {
+        mAsyncGeneration++;
+        if (mPendingActionItems != null) {
+            mPendingActionItems.clear();
+            mActionItemPositionsById.clear();
+            mActionItemPositionsDirty = false;
+            notifyActionItemsChanged();
+            return;
+        }
+        beginBatchUpdate();
+        try {
+            for (int i = mFabWithLabelViews.size() - 1; i >= 0; i--) {
+                removeActionItem(mFabWithLabelViews.get(i), true);
+            }
+        } finally {
+            commitBatchUpdate();
+        }
+    }
+
+    /**
+     * Starts a batch of changes to the {@link SpeedDialActionItem} list. Until the matching
+     * {@link #commitBatchUpdate()} adds, removes, replaces and moves update the view hierarchy without requesting a
+     * layout and without starting any animation. Calls can be nested, only the outermost commit applies the batch.
+     *
+     * @see #commitBatchUpdate()
+     */
+    public void beginBatchUpdate() {
+        mBatchUpdateDepth++;
+    }
+
+    /**
+     * Ends a batch of changes started with {@link #beginBatchUpdate()}, requesting a single layout and running the
+     * enter and exit animations of all the items added or removed during the batch together, from a single animator.
+     */
+    public void commitBatchUpdate() {
+        if (mBatchUpdateDepth <= 0) {
+            throw new IllegalStateException("commitBatchUpdate() called without a matching beginBatchUpdate()");
+        }
+        mBatchUpdateDepth--;
+        if (mBatchUpdateDepth > 0) {
+            return;
+        }
+        requestLayout();
+        invalidate();
+        if (mActionItemsChangedInBatch) {
+            mActionItemsChangedInBatch = false;
+            mActionItemsAdapter.notifyDataSetChanged();
+        }
+        if (isOpen() && getActionItemCount() == 0) {
+            close();
+        }
+        if (!isOpen()) {
+            mBatchAddedViews.clear();
+        }
+        if (!mBatchRemovedViews.isEmpty() || !mBatchAddedViews.isEmpty()) {
+            // A single animator for the whole batch, whatever the number of added and removed items
+            getBatchChoreographer().startTransition(mBatchAddedViews, mBatchRemovedViews,
+                    getActionItemAnimator().getDuration(), mFabWithLabelViewPool);
+        }
+        mBatchRemovedViews.clear();
+        mBatchAddedViews.clear();
+    }
+
+    private ActionItemChoreographer getBatchChoreographer() {
+        ActionItemChoreographer batchChoreographer = mBatchChoreographer;
+        if (batchChoreographer == null) {
+            batchChoreographer = new ActionItemChoreographer();
+            mBatchChoreographer = batchChoreographer;
+        }
+        return batchChoreographer;
+    }
+
+    /**
+     * Ends the animation of the last batch, if running, so that it doesn't fight with the open and close animations.
+     */
+    private void cancelBatchTransition() {
+        ActionItemChoreographer batchChoreographer = mBatchChoreographer;
+        if (batchChoreographer != null) {
+            batchChoreographer.cancel();
+        }
+    }
+
+    /**
+     * Returns true if a batch started with {@link #beginBatchUpdate()} has not been committed yet.
+     */
+    public boolean isBatchUpdating() {
+        return mBatchUpdateDepth > 0;
+    }
+
+    /**
+     * Returns the position of the {@link SpeedDialActionItem} with the given ID in this list.
+     *
+     * @param idRes the ID to search for
+     * @return the index of the {@link SpeedDialActionItem}, or -1 if this list does not contain it
+     */
+    public int indexOfActionItem(@IdRes int idRes) {
+        ArrayList<SpeedDialActionItem> pendingActionItems = mPendingActionItems;
+        if (pendingActionItems == null && mFabWithLabelViewsById.get(idRes) == null) {
+            return -1;
+        }
+        if (mActionItemPositionsDirty) {
+            mActionItemPositionsById.clear();
+            if (pendingActionItems != null) {
+                for (int i = 0; i < pendingActionItems.size(); i++) {
+                    mActionItemPositionsById.put(pendingActionItems.get(i).getId(), i);
+                }
+            } else {
+                for (int i = 0; i < mFabWithLabelViews.size(); i++) {
+                    mActionItemPositionsById.put(mFabWithLabelViews.get(i).getId(), i);
+                }
+            }
+            mActionItemPositionsDirty = false;
+        }
+        return mActionItemPositionsById.get(idRes, -1);
+    }
+
+    @NonNull
+    public ArrayList<SpeedDialActionItem> getActionItems() {
+        if (mPendingActionItems != null) {
+            return new ArrayList<>(mPendingActionItems);
+        }
+        ArrayList<SpeedDialActionItem> speedDialActionItems = new ArrayList<>(mFabWithLabelViews.size());
+        for (FabWithLabelView fabWithLabelView : mFabWithLabelViews) {
+            speedDialActionItems.add(fabWithLabelView.getSpeedDialActionItem());
+        }
+        return speedDialActionItems;
+    }
+
+    public FabWithLabelViewPool getFabWithLabelViewPool() {
+        return mFabWithLabelViewPool;
+    }
+
+    /**
+     * Sets the pool used to recycle the {@link FabWithLabelView} of the removed action items. The same pool can be
+     * shared between several {@link SpeedDialView}s of the same Activity.
+     *
+     * @param pool the pool to use, or null to use a new pool owned by this view
+     */
+    public void setFabWithLabelViewPool(@Nullable FabWithLabelViewPool pool) {
+        mFabWithLabelViewPool = pool != null ? pool : new FabWithLabelViewPool();
+    }
+
+    @Nullable
+    public AnimationQualityController getAnimationQualityController() {
+        return mAnimationQualityController;
+    }
+
+    /**
+     * Sets the controller that measures the open animations and lowers their quality when they miss frames. The same
+     * controller can be shared between several {@link SpeedDialView}s.
+     *
+     * @param controller the controller to use, or null to always use {@link AnimationQualityController.Quality#HIGH}
+     */
+    public void setAnimationQualityController(@Nullable AnimationQualityController controller) {
+        cancelQualitySample();
+        mAnimationQualityController = controller;
+    }
+
+    private void cancelQualitySample() {
+        AnimationQualityController controller = mAnimationQualityController;
+        AnimationQualityController.Measurement measurement = mQualityMeasurement;
+        if (controller != null && measurement != null) {
+            controller.cancelSample(measurement);
+        }
+        mQualityMeasurement = null;
+    }
+
+    @AnimationQualityController.Quality
+    private int getAnimationQuality() {
+        AnimationQualityController controller = mAnimationQualityController;
+        return controller != null ? controller.getQuality() : AnimationQualityController.Quality.HIGH;
+    }
+
+    @NonNull
+    @Override
+    public CoordinatorLayout.Behavior getBehavior() {
+        return new SnackbarBehavior();
+    }
+
+    /**
+     * Set a listener that will be notified when a menu fab is selected.
+     *
+     * @param listener listener to set.
+     */
+    public void setOnActionSelectedListener(@Nullable OnActionSelectedListener listener) {
+        mOnActionSelectedListener = listener;
+
+        for (int index = 0; index < mFabWithLabelViews.size(); index++) {
+            final FabWithLabelView fabWithLabelView = mFabWithLabelViews.get(index);
+            fabWithLabelView.setOnActionSelectedListener(mOnActionSelectedProxyListener);
+        }
+    }
+
+    /**
+     * Set Main FloatingActionButton ClickMOnOptionFabSelectedListener.
+     *
+     * @param onChangeListener listener to set.
+     */
+    public void setOnChangeListener(@Nullable final OnChangeListener onChangeListener) {
+        mOnChangeListener = onChangeListener;
+    }
+
+    /**
+     * Opens speed dial menu. {@link #isOpen()} and {@link OnChangeListener#onToggleChanged(boolean)} change
+     * immediately, while the animation starts on the next frame, so that the toggles requested within a frame are
+     * coalesced.
+     */
+    public void open() {
+        toggle(true, true);
     }
 
     public void open(boolean animate) {
@@ -530,7 +1375,7 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     }
 
     /**
-     * Closes speed dial menu.
+     * Closes speed dial menu. Like {@link #open()}, the animation starts on the next frame.
      */
     public void close() {
         toggle(false, true);
@@ -541,7 +1386,7 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     }
 
     /**
-     * Toggles speed dial menu.
+     * Toggles speed dial menu. Like {@link #open()}, the animation starts on the next frame.
      */
     public void toggle() {
         toggle(!isOpen(), true);
@@ -558,6 +1403,128 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
         return mInstanceState.mIsOpen;
     }
 
+    /**
+     * Returns the state of the open and close animation. Unlike {@link #isOpen()}, which returns the requested state,
+     * it tells whether the menu is still animating towards it.
+     */
+    @AnimationState
+    public int getAnimationState() {
+        return mAnimationState;
+    }
+
+    /**
+     * Returns the progress of the open and close animation, from 0 (closed) to 1 (open). Toggling the menu while
+     * it is animating reverses the animation from this progress.
+     */
+    public float getOpenProgress() {
+        switch (mAnimationState) {
+            case OPENING:
+            case CLOSING:
+                return mActionItemChoreographer.getProgress();
+            case OPEN:
+                return 1F;
+            case CLOSED:
+            default:
+                return 0F;
+        }
+    }
+
+    /**
+     * Moves the close animation to the given progress, following a gesture like the predictive back one: the action
+     * items, the overlay alpha and the main fab rotation are driven directly from {@code progress}. The first call
+     * starts the seek, which must be ended by {@link #commitClose()} or {@link #cancelClose()}. Does nothing if the
+     * speed dial is closed.
+     * <p>
+     * This method allocates nothing and can be called for every input event. On Android 14 and higher it can be wired
+     * to an {@code OnBackAnimationCallback} registered while the speed dial is open:
+     * <pre>{@code
+     * public void onBackProgressed(BackEvent backEvent) {
+     *     speedDialView.setCloseProgress(backEvent.getProgress());
+     * }
+     *
+     * public void onBackInvoked() {
+     *     speedDialView.commitClose();
+     * }
+     *
+     * public void onBackCancelled() {
+     *     speedDialView.cancelClose();
+     * }
+     * }</pre>
+     *
+     * @param progress from 0 (open) to 1 (closed)
+     */
+    public void setCloseProgress(float progress) {
+        if (!mCloseSeeking) {
+            if (mToggleScheduled) {
+                cancelScheduledToggle();
+                applyToggle(isOpen(), true);
+            }
+            if (!mAppliedOpen || getActionItemCount() == 0) {
+                return;
+            }
+            beginCloseSeek();
+        }
+        mActionItemChoreographer.seek(progress);
+        float openProgress = mActionItemChoreographer.getProgress();
+        mMainFab.setRotation(getMainFabAnimationRotateAngle() * openProgress);
+        if (mMainFabColorCrossFade) {
+            applyMainFabColorProgress(openProgress);
+        }
+        SpeedDialOverlayLayout overlayLayout = mOverlayLayout;
+        if (overlayLayout != null) {
+            overlayLayout.seek(openProgress);
+        }
+    }
+
+    /**
+     * Closes the speed dial, animating from the progress set with {@link #setCloseProgress(float)}. Does nothing if no
+     * close is being seeked.
+     */
+    public void commitClose() {
+        if (mCloseSeeking) {
+            applyToggle(false, true);
+        }
+    }
+
+    /**
+     * Animates the speed dial back open from the progress set with {@link #setCloseProgress(float)}. Does nothing if
+     * no close is being seeked.
+     */
+    public void cancelClose() {
+        if (mCloseSeeking) {
+            applyToggle(true, true);
+        }
+    }
+
+    private void beginCloseSeek() {
+        cancelBatchTransition();
+        List<FabWithLabelView> views = mFabWithLabelViews;
+        ActionItemsRecyclerView recyclerView = mActionItemsRecyclerView;
+        if (recyclerView != null) {
+            if (mShowActionItemsScheduled) {
+                mShowActionItemsScheduled = false;
+                getViewTreeObserver().removeOnPreDrawListener(mShowActionItemsPreDrawListener);
+            }
+            views = getLaidOutActionItemViews(recyclerView);
+        }
+        // The gesture drives the motion, so the seek follows the full animation whatever the policy
+        boolean fadeOut = !mInstanceState.mUseReverseAnimationOnClose;
+        if (fadeOut) {
+            computeFadeOutChoreography();
+        } else {
+            computeActionItemChoreography(views.size(), true);
+        }
+        mActionItemChoreographer.setFadeOnly(fadeOut);
+        mActionItemChoreographer.setUseLayers(true);
+        mActionItemChoreographer.setHideLabelShadows(false);
+        mAppliedAnimationPolicy = FULL;
+        mActionItemChoreographer.beginSeek(views, mChoreographyDuration, mChoreographyStagger,
+                mActionItemProgressCurve);
+        mCloseSeeking = true;
+        mAnimationState = CLOSING;
+        ViewCompat.animate(mMainFab).cancel();
+    }
+
     public FloatingActionButton getMainFab() {
         return mMainFab;
     }
@@ -578,6 +1545,11 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
 
     public void setMainFabOpenedDrawable(@Nullable Drawable drawable) {
         mMainFabCloseOriginalDrawable = drawable;
+        if (drawable == null) {
+            mMainFabOpenedRasterCache.clear();
+        } else {
+            mMainFabOpenedRasterCache.invalidate();
+        }
         if (mMainFabCloseOriginalDrawable == null) {
             mMainFabOpenedDrawable = null;
         } else {
@@ -595,6 +1567,7 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     public void setMainFabClosedBackgroundColor(@ColorInt int mainFabClosedBackgroundColor) {
         mInstanceState.mMainFabClosedBackgroundColor = mainFabClosedBackgroundColor;
         updateMainFabBackgroundColor();
+        prepareMainFabColorTransitions();
     }
 
     @ColorInt
@@ -605,6 +1578,24 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     public void setMainFabOpenedBackgroundColor(@ColorInt int mainFabOpenedBackgroundColor) {
         mInstanceState.mMainFabOpenedBackgroundColor = mainFabOpenedBackgroundColor;
         updateMainFabBackgroundColor();
+        prepareMainFabColorTransitions();
+    }
+
+    public boolean getMainFabColorCrossFade() {
+        return mMainFabColorCrossFade;
+    }
+
+    /**
+     * Enables or disables the animated cross-fade of the main fab background and icon colors between their closed and
+     * opened values. The cross-fade follows the rotation of the main fab, so it requires a rotation angle other than 0;
+     * otherwise the colors change at once.
+     *
+     * @param crossFade True to cross-fade the colors, false to change them at once.
+     */
+    public void setMainFabColorCrossFade(boolean crossFade) {
+        mMainFabColorCrossFade = crossFade;
+        ViewCompat.animate(mMainFab).setUpdateListener(crossFade ? mMainFabRotationUpdateListener : null);
+        prepareMainFabColorTransitions();
     }
 
     @ColorInt
@@ -615,6 +1606,7 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     public void setMainFabClosedIconColor(@ColorInt int mainFabClosedIconColor) {
         mInstanceState.mMainFabClosedIconColor = mainFabClosedIconColor;
         updateMainFabIconColor();
+        prepareMainFabColorTransitions();
     }
 
     @ColorInt
@@ -625,6 +1617,7 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     public void setMainFabOpenedIconColor(@ColorInt int mainFabOpenedIconColor) {
         mInstanceState.mMainFabOpenedIconColor = mainFabOpenedIconColor;
         updateMainFabIconColor();
+        prepareMainFabColorTransitions();
     }
 
     @Override
@@ -634,39 +1627,157 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
             SpeedDialOverlayLayout overlayLayout = getRootView().findViewById(mOverlayLayoutId);
             setOverlayLayout(overlayLayout);
         }
+        if (mPrewarmOnIdle) {
+            schedulePrewarm();
+        }
+        updateAnimationPolicyMonitor();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mAsyncGeneration++;
+        cancelPrewarm();
+        if (mShowActionItemsScheduled) {
+            mShowActionItemsScheduled = false;
+            getViewTreeObserver().removeOnPreDrawListener(mShowActionItemsPreDrawListener);
+            mActionItemsAnimationEndRunnable.run();
+        }
+        if (mToggleScheduled || mCloseSeeking) {
+            cancelScheduledToggle();
+            applyToggle(isOpen(), false);
+        }
+        if (mAnimationPolicyMonitor != null) {
+            mAnimationPolicyMonitor.unregister();
+        }
+        cancelQualitySample();
+        cancelBatchTransition();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        ActionItemsRecyclerView recyclerView = mActionItemsRecyclerView;
+        if (recyclerView != null) {
+            int reservedSize = 0;
+            if (getExpansionMode() == TOP || getExpansionMode() == LEFT) {
+                // The list is measured before the main FAB, which must still fit after it
+                measureChildWithMargins(mMainFab, widthMeasureSpec, 0, heightMeasureSpec, 0);
+                LayoutParams layoutParams = (LayoutParams) mMainFab.getLayoutParams();
+                if (getOrientation() == VERTICAL) {
+                    reservedSize = mMainFab.getMeasuredHeight() + layoutParams.topMargin + layoutParams.bottomMargin;
+                } else {
+                    reservedSize = mMainFab.getMeasuredWidth() + layoutParams.leftMargin + layoutParams.rightMargin;
+                }
+            }
+            recyclerView.mReservedSize = reservedSize;
+        }
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        ResourceCache.invalidate(getContext());
+        mDefaultMainFabBackgroundColorResolved = false;
+        mMainFabOpenedRasterCache.invalidate();
+        mActionItemAnimator = null;
     }
 
     @Nullable
     @Override
     protected Parcelable onSaveInstanceState() {
-        Bundle bundle = new Bundle();
-        mInstanceState.mSpeedDialActionItems = getActionItems();
-        bundle.putParcelable(InstanceState.class.getName(), mInstanceState);
-        bundle.putParcelable(STATE_KEY_SUPER, super.onSaveInstanceState());
-        return bundle;
+        SavedState savedState = new SavedState(super.onSaveInstanceState(), mInstanceState);
+        ArrayList<SpeedDialActionItem> pendingActionItems = mPendingActionItems;
+        int count = pendingActionItems != null ? pendingActionItems.size() : mFabWithLabelViews.size();
+        savedState.mIds = new int[count];
+        savedState.mContentHashes = new int[count];
+        savedState.mActionItems = new SpeedDialActionItem[count];
+        SparseIntArray restoredContentHashes = mRestoredContentHashes;
+        for (int i = 0; i < count; i++) {
+            SpeedDialActionItem actionItem = pendingActionItems != null
+                    ? pendingActionItems.get(i) : mFabWithLabelViews.get(i).getSpeedDialActionItem();
+            int id = actionItem.getId();
+            int contentHash = actionItem.getContentHash();
+            savedState.mIds[i] = id;
+            savedState.mContentHashes[i] = contentHash;
+            // The items that were already attached when this view was restored will be attached again by the next
+            // restore, so only their ID and hash are saved
+            int index = restoredContentHashes != null ? restoredContentHashes.indexOfKey(id) : -1;
+            if (restoredContentHashes == null || index < 0 || restoredContentHashes.valueAt(index) != contentHash) {
+                savedState.mActionItems[i] = actionItem;
+            }
+        }
+        return savedState;
     }
 
     @Override
     protected void onRestoreInstanceState(Parcelable state) {
-        if (state instanceof Bundle) {
-            Bundle bundle = (Bundle) state;
-            InstanceState instanceState = bundle.getParcelable(InstanceState.class.getName());
-            if (instanceState != null
-                    && instanceState.mSpeedDialActionItems != null
-                    && !instanceState.mSpeedDialActionItems.isEmpty()) {
-                setUseReverseAnimationOnClose(instanceState.mUseReverseAnimationOnClose);
-                setMainFabAnimationRotateAngle(instanceState.mMainFabAnimationRotateAngle);
-                setMainFabOpenedBackgroundColor(instanceState.mMainFabOpenedBackgroundColor);
-                setMainFabClosedBackgroundColor(instanceState.mMainFabClosedBackgroundColor);
-                setMainFabOpenedIconColor(instanceState.mMainFabOpenedIconColor);
-                setMainFabClosedIconColor(instanceState.mMainFabClosedIconColor);
-                setExpansionMode(instanceState.mExpansionMode, true);
-                addAllActionItems(instanceState.mSpeedDialActionItems);
-                toggle(instanceState.mIsOpen, false);
-            }
-            state = bundle.getParcelable(STATE_KEY_SUPER);
-        }
-        super.onRestoreInstanceState(state);
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        InstanceState instanceState = savedState.mInstanceState;
+        if (instanceState != null && savedState.mIds.length > 0) {
+            // The saved items are merged into the attached ones: the items attached by the app are kept in their
+            // order, the ones also saved are resolved against the saved entry, and the other saved items are appended
+            SparseIntArray savedPositionsById = new SparseIntArray(savedState.mIds.length);
+            for (int i = 0; i < savedState.mIds.length; i++) {
+                savedPositionsById.put(savedState.mIds[i], i);
+            }
+            ArrayList<SpeedDialActionItem> attachedActionItems = getActionItems();
+            SparseIntArray restoredContentHashes = new SparseIntArray(attachedActionItems.size());
+            ArrayList<SpeedDialActionItem> actionItems =
+                    new ArrayList<>(attachedActionItems.size() + savedState.mIds.length);
+            for (int i = 0; i < attachedActionItems.size(); i++) {
+                SpeedDialActionItem attachedActionItem = attachedActionItems.get(i);
+                int id = attachedActionItem.getId();
+                restoredContentHashes.put(id, attachedActionItem.getContentHash());
+                int savedPosition = savedPositionsById.get(id, -1);
+                SpeedDialActionItem actionItem = savedPosition < 0 ? attachedActionItem : resolveRestoredActionItem(
+                        attachedActionItem, savedState.mContentHashes[savedPosition],
+                        savedState.mActionItems[savedPosition]);
+                if (actionItem != null) {
+                    actionItems.add(actionItem);
+                }
+            }
+            mRestoredContentHashes = restoredContentHashes;
+            for (int i = 0; i < savedState.mIds.length; i++) {
+                SpeedDialActionItem savedActionItem = savedState.mActionItems[i];
+                if (restoredContentHashes.indexOfKey(savedState.mIds[i]) < 0 && savedActionItem != null) {
+                    actionItems.add(savedActionItem);
+                }
+            }
+            setUseReverseAnimationOnClose(instanceState.mUseReverseAnimationOnClose);
+            setMainFabAnimationRotateAngle(instanceState.mMainFabAnimationRotateAngle);
+            setMainFabOpenedBackgroundColor(instanceState.mMainFabOpenedBackgroundColor);
+            setMainFabClosedBackgroundColor(instanceState.mMainFabClosedBackgroundColor);
+            setMainFabOpenedIconColor(instanceState.mMainFabOpenedIconColor);
+            setMainFabClosedIconColor(instanceState.mMainFabClosedIconColor);
+            setExpansionMode(instanceState.mExpansionMode, true);
+            setActionItems(actionItems);
+            toggle(instanceState.mIsOpen, false);
+        }
+        super.onRestoreInstanceState(savedState.getSuperState());
+    }
+
+    /**
+     * Returns the item to restore for a saved entry. The attached item is preferred when it has the saved content,
+     * since it keeps its Drawable icon and its view, and when only the ID and the hash were saved, since the item was
+     * attached again by the app, even if its content changed meanwhile, for instance a label of another locale.
+     *
+     * @param attached         the item attached with the saved ID, or null
+     * @param savedContentHash the saved hash of the content of the item
+     * @param saved            the saved item, or null if only its ID and hash were saved
+     * @return the item to restore, or null if it can't be restored
+     */
+    @Nullable
+    static SpeedDialActionItem resolveRestoredActionItem(@Nullable SpeedDialActionItem attached, int savedContentHash,
+                                                         @Nullable SpeedDialActionItem saved) {
+        if (attached != null && (saved == null || attached.getContentHash() == savedContentHash)) {
+            return attached;
+        }
+        return saved;
     }
 
     @Override
@@ -684,28 +1795,31 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     }
 
     @Nullable
-    private SpeedDialActionItem removeActionItem(@Nullable FabWithLabelView view,
-                                                 @Nullable Iterator<FabWithLabelView> it,
-                                                 boolean animate) {
+    private SpeedDialActionItem removeActionItem(@Nullable FabWithLabelView view, boolean animate) {
         if (view != null) {
             SpeedDialActionItem speedDialActionItem = view.getSpeedDialActionItem();
-            if (it != null) {
-                it.remove();
-            } else {
-                mFabWithLabelViews.remove(view);
-            }
+            unregisterFabWithLabelView(indexOfActionItem(view.getId()));
 
-            if (isOpen()) {
-                if (mFabWithLabelViews.isEmpty()) {
+            if (isBatchUpdating() && mBatchAddedViews.remove(view)) {
+                detachFabWithLabelView(view);
+                mFabWithLabelViewPool.putRecycledView(view);
+            } else if (isOpen()) {
+                if (mFabWithLabelViews.isEmpty() && !isBatchUpdating()) {
                     close();
                 }
                 if (animate) {
-                    UiUtils.shrinkAnim(view, true);
+                    if (isBatchUpdating()) {
+                        mBatchRemovedViews.add(view);
+                    } else {
+                        removeWithAnimationFabWithLabelView(view);
+                    }
                 } else {
-                    removeView(view);
+                    detachFabWithLabelView(view);
+                    mFabWithLabelViewPool.putRecycledView(view);
                 }
             } else {
-                removeView(view);
+                detachFabWithLabelView(view);
+                mFabWithLabelViewPool.putRecycledView(view);
             }
             return speedDialActionItem;
         } else {
@@ -715,7 +1829,231 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
 
     @Nullable
     private SpeedDialActionItem removeActionItem(@Nullable FabWithLabelView view) {
-        return removeActionItem(view, null, true);
+        return removeActionItem(view, true);
+    }
+
+    /**
+     * Inserts the view in the list and keeps the ID index in sync. Appending keeps the cached positions valid, any
+     * other insertion invalidates them until the next {@link #indexOfActionItem(int)}.
+     */
+    private void registerFabWithLabelView(int position, FabWithLabelView view) {
+        mFabWithLabelViews.add(position, view);
+        mFabWithLabelViewsById.put(view.getId(), view);
+        if (!mActionItemPositionsDirty && position == mFabWithLabelViews.size() - 1) {
+            mActionItemPositionsById.put(view.getId(), position);
+        } else {
+            mActionItemPositionsDirty = true;
+        }
+    }
+
+    /**
+     * Replaces the view at the given position and keeps the ID index in sync, without invalidating the positions of
+     * the other views.
+     */
+    private void setFabWithLabelView(int position, FabWithLabelView view) {
+        FabWithLabelView oldView = mFabWithLabelViews.set(position, view);
+        mFabWithLabelViewsById.remove(oldView.getId());
+        mFabWithLabelViewsById.put(view.getId(), view);
+        mActionItemPositionsById.delete(oldView.getId());
+        if (!mActionItemPositionsDirty) {
+            mActionItemPositionsById.put(view.getId(), position);
+        }
+    }
+
+    /**
+     * Updates the cached positions of the items between the two given positions, inclusive, after an item has been
+     * moved from one to the other: the items outside of this range keep their position.
+     */
+    private void updateActionItemPositions(int oldPosition, int newPosition) {
+        if (mActionItemPositionsDirty) {
+            return;
+        }
+        for (int i = Math.min(oldPosition, newPosition); i <= Math.max(oldPosition, newPosition); i++) {
+            mActionItemPositionsById.put(getActionItem(i).getId(), i);
+        }
+    }
+
+    /**
+     * Adds the view to the hierarchy, deferring the layout request to {@link #commitBatchUpdate()} when batching.
+     */
+    private void attachFabWithLabelView(FabWithLabelView view, int layoutPosition) {
+        if (isBatchUpdating()) {
+            ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
+            if (layoutParams == null) {
+                layoutParams = generateDefaultLayoutParams();
+            }
+            addViewInLayout(view, layoutPosition, layoutParams, true);
+        } else {
+            addView(view, layoutPosition);
+        }
+    }
+
+    private void detachFabWithLabelView(FabWithLabelView view) {
+        if (isBatchUpdating()) {
+            removeViewInLayout(view);
+        } else {
+            removeView(view);
+        }
+    }
+
+    /**
+     * Returns true if the view of {@code oldActionItem} can be rebound to {@code newActionItem}: views are created
+     * with the theme of their item, so it can't change.
+     */
+    private static boolean canRebind(SpeedDialActionItem oldActionItem, SpeedDialActionItem newActionItem) {
+        return oldActionItem.getTheme() == newActionItem.getTheme();
+    }
+
+    private FabWithLabelView obtainActionItemView(SpeedDialActionItem actionItem) {
+        FabWithLabelView view = obtainFabWithLabelView(actionItem);
+        view.setOrientation(getOrientation() == VERTICAL ? HORIZONTAL : VERTICAL);
+        view.setOnActionSelectedListener(mOnActionSelectedProxyListener);
+        return view;
+    }
+
+    private FabWithLabelView obtainFabWithLabelView(SpeedDialActionItem actionItem) {
+        SparseArray<FabWithLabelView> prebuiltFabWithLabelViews = mPrebuiltFabWithLabelViews;
+        if (prebuiltFabWithLabelViews != null) {
+            FabWithLabelView view = prebuiltFabWithLabelViews.get(actionItem.getId());
+            if (view != null && view.getSpeedDialActionItem() == actionItem) {
+                prebuiltFabWithLabelViews.remove(actionItem.getId());
+                return view;
+            }
+        }
+        return mFabWithLabelViewPool.getFabWithLabelView(getContext(), actionItem);
+    }
+
+    /**
+     * Moves the prebuilt views that have not been used to the pool.
+     */
+    private void recyclePrebuiltFabWithLabelViews(SparseArray<FabWithLabelView> prebuiltFabWithLabelViews) {
+        mPrebuiltFabWithLabelViews = null;
+        for (int i = 0; i < prebuiltFabWithLabelViews.size(); i++) {
+            mFabWithLabelViewPool.putRecycledView(prebuiltFabWithLabelViews.valueAt(i));
+        }
+        prebuiltFabWithLabelViews.clear();
+    }
+
+    private void removeWithAnimationFabWithLabelView(final FabWithLabelView view) {
+        UiUtils.shrinkAnim(view, true, new Runnable() {
+            @Override
+            public void run() {
+                if (view.getParent() == null) {
+                    mFabWithLabelViewPool.putRecycledView(view);
+                }
+            }
+        });
+    }
+
+    private void registerPendingActionItem(ArrayList<SpeedDialActionItem> pendingActionItems, int position,
+                                           SpeedDialActionItem actionItem) {
+        pendingActionItems.add(position, actionItem);
+        if (!mActionItemPositionsDirty && position == pendingActionItems.size() - 1) {
+            mActionItemPositionsById.put(actionItem.getId(), position);
+        } else {
+            mActionItemPositionsDirty = true;
+        }
+    }
+
+    private SpeedDialActionItem unregisterPendingActionItem(ArrayList<SpeedDialActionItem> pendingActionItems,
+                                                            int position) {
+        SpeedDialActionItem actionItem = pendingActionItems.remove(position);
+        mActionItemPositionsById.delete(actionItem.getId());
+        if (position != pendingActionItems.size()) {
+            mActionItemPositionsDirty = true;
+        }
+        return actionItem;
+    }
+
+    /**
+     * Inflates the views of the action items added in lazy inflation mode, if any.
+     */
+    private void inflatePendingActionItems() {
+        ArrayList<SpeedDialActionItem> pendingActionItems = mPendingActionItems;
+        if (pendingActionItems != null && !mVirtualized) {
+            mPendingActionItems = null;
+            mActionItemPositionsById.clear();
+            mActionItemPositionsDirty = false;
+            // The action items are unchanged, the asynchronous changes are still valid
+            int generation = mAsyncGeneration;
+            addAllActionItems(pendingActionItems);
+            mAsyncGeneration = generation;
+        }
+    }
+
+    /**
+     * Notifies the virtualized list, if any, that the action items changed. When batching the notification is
+     * deferred to {@link #commitBatchUpdate()}.
+     */
+    private void notifyActionItemsChanged() {
+        if (mActionItemsRecyclerView == null) {
+            return;
+        }
+        if (isBatchUpdating()) {
+            mActionItemsChangedInBatch = true;
+        } else {
+            mActionItemsAdapter.notifyDataSetChanged();
+            if (isOpen() && getActionItemCount() == 0) {
+                close();
+            }
+        }
+    }
+
+    private ActionItemsRecyclerView createActionItemsRecyclerView() {
+        ActionItemsRecyclerView recyclerView = new ActionItemsRecyclerView(getContext());
+        recyclerView.setId(R.id.sd_action_items);
+        recyclerView.setLayoutParams(new LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT));
+        recyclerView.setOverScrollMode(OVER_SCROLL_IF_CONTENT_SCROLLS);
+        recyclerView.setAdapter(mActionItemsAdapter);
+        recyclerView.setVisibility(isOpen() ? VISIBLE : GONE);
+        return recyclerView;
+    }
+
+    /**
+     * Orients the virtualized list according to the expansion mode, keeping the first action item next to the main
+     * FAB.
+     */
+    private void updateActionItemsRecyclerView(ActionItemsRecyclerView recyclerView) {
+        recyclerView.mLayoutManager.setOrientation(getOrientation());
+        recyclerView.mLayoutManager.setReverseLayout(getExpansionMode() == TOP || getExpansionMode() == LEFT);
+        LayoutParams layoutParams = (LayoutParams) recyclerView.getLayoutParams();
+        layoutParams.gravity = getOrientation() == VERTICAL ? Gravity.END : Gravity.CENTER_VERTICAL;
+        mActionItemsAdapter.notifyDataSetChanged();
+    }
+
+    private static FabWithLabelView getChildFabWithLabelView(RecyclerView recyclerView, View child) {
+        return ((ActionItemViewHolder) recyclerView.getChildViewHolder(child)).mFabWithLabelView;
+    }
+
+    /**
+     * Restores the visibility and the properties of an action item view hidden by a close animation.
+     */
+    private static void resetActionItemView(FabWithLabelView fabWithLabelView) {
+        ActionItemAnimator.reset(fabWithLabelView.getFab());
+        fabWithLabelView.getFab().setVisibility(VISIBLE);
+        ActionItemAnimator.reset(fabWithLabelView.getLabelBackground());
+        fabWithLabelView.getLabelBackground().setVisibility(fabWithLabelView.isLabelEnabled() ? VISIBLE : GONE);
+    }
+
+    private int getActionItemCount() {
+        return mPendingActionItems != null ? mPendingActionItems.size() : mFabWithLabelViews.size();
+    }
+
+    private SpeedDialActionItem getActionItem(int position) {
+        if (mPendingActionItems != null) {
+            return mPendingActionItems.get(position);
+        }
+        return mFabWithLabelViews.get(position).getSpeedDialActionItem();
+    }
+
+    private void unregisterFabWithLabelView(int position) {
+        FabWithLabelView view = mFabWithLabelViews.remove(position);
+        mFabWithLabelViewsById.remove(view.getId());
+        mActionItemPositionsById.delete(view.getId());
+        if (position != mFabWithLabelViews.size()) {
+            mActionItemPositionsDirty = true;
+        }
     }
 
     private void init(Context context, @Nullable AttributeSet attrs) {
@@ -723,7 +2061,7 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
         addView(mMainFab);
         setClipChildren(false);
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            setElevation(getResources().getDimension(R.dimen.sd_close_elevation));
+            setElevation(ResourceCache.getDimension(getContext(), R.dimen.sd_close_elevation));
         }
         TypedArray styledAttrs = context.obtainStyledAttributes(attrs, R.styleable.SpeedDialView, 0, 0);
         try {
@@ -733,6 +2071,8 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
 
             setMainFabAnimationRotateAngle(styledAttrs.getFloat(R.styleable.SpeedDialView_sdMainFabAnimationRotateAngle,
                     getMainFabAnimationRotateAngle()));
+            setMainFabColorCrossFade(styledAttrs.getBoolean(R.styleable.SpeedDialView_sdMainFabColorCrossFade,
+                    getMainFabColorCrossFade()));
             @DrawableRes int openDrawableRes = styledAttrs.getResourceId(R.styleable.SpeedDialView_sdMainFabClosedSrc,
                     RESOURCE_NOT_SET);
             if (openDrawableRes != RESOURCE_NOT_SET) {
@@ -758,6 +2098,15 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
                             .SpeedDialView_sdMainFabOpenedIconColor,
                     getMainFabOpenedIconColor()));
             mOverlayLayoutId = styledAttrs.getResourceId(R.styleable.SpeedDialView_sdOverlayLayout, RESOURCE_NOT_SET);
+            setLazyInflation(styledAttrs.getBoolean(R.styleable.SpeedDialView_sdLazyInflation, getLazyInflation()));
+            setPrewarmOnIdle(styledAttrs.getBoolean(R.styleable.SpeedDialView_sdPrewarmOnIdle, getPrewarmOnIdle()));
+            setVirtualized(styledAttrs.getBoolean(R.styleable.SpeedDialView_sdVirtualized, getVirtualized()));
+            setMaxAnimationDuration(styledAttrs.getInt(R.styleable.SpeedDialView_sdMaxAnimationDuration,
+                    getMaxAnimationDuration()));
+            setAnimationPolicy(styledAttrs.getInt(R.styleable.SpeedDialView_sdAnimationPolicy, getAnimationPolicy()));
+            if (styledAttrs.getBoolean(R.styleable.SpeedDialView_sdAdaptiveAnimationQuality, false)) {
+                setAnimationQualityController(new AnimationQualityController(context));
+            }
         } catch (Exception e) {
             Log.e(TAG, "Failure setting FabWithLabelView icon", e);
         } finally {
@@ -796,23 +2145,93 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     }
 
     private void toggle(boolean show, boolean animate) {
-        if (show && mFabWithLabelViews.isEmpty()) {
+        if (show) {
+            inflatePendingActionItems();
+        }
+        if (show && getActionItemCount() == 0) {
             show = false;
             if (mOnChangeListener != null) {
                 mOnChangeListener.onMainActionSelected();
             }
         }
-        if (isOpen() == show) {
+        if (!animate || !ViewCompat.isAttachedToWindow(this)) {
+            cancelScheduledToggle();
+            applyToggle(show, animate);
             return;
         }
+        // Animated toggles are applied on the next frame, so that the requests made within a frame are coalesced.
+        // Only the views wait: the state and the listener change immediately.
         mInstanceState.mIsOpen = show;
+        notifyToggleChanged(show);
+        if (!mToggleScheduled) {
+            mToggleScheduled = true;
+            ViewCompat.postOnAnimation(this, mToggleRunnable);
+        }
+    }
+
+    private void cancelScheduledToggle() {
+        if (mToggleScheduled) {
+            mToggleScheduled = false;
+            removeCallbacks(mToggleRunnable);
+        }
+    }
+
+    /**
+     * Moves the state machine towards the given state: starts the animation from a rest state, or reverses the
+     * running one from its current progress.
+     */
+    private void applyToggle(boolean show, boolean animate) {
+        mInstanceState.mIsOpen = show;
+        if (animate) {
+            mAppliedAnimationPolicy = getResolvedAnimationPolicy();
+            animate = mAppliedAnimationPolicy != NONE;
+        }
+        if (mCloseSeeking) {
+            // A toggle ends the seek: reverse it, or settle it without animation
+            mCloseSeeking = false;
+            if (!animate) {
+                mActionItemChoreographer.cancel();
+                // Apply the state again, since the seek left the views in between
+                mAppliedOpen = !show;
+            } else if (show) {
+                mAnimationState = OPENING;
+                mActionItemChoreographer.reverse(true, mActionItemsAnimationEndRunnable);
+                UiUtils.rotateForward(mMainFab, getMainFabAnimationRotateAngle(), mAppliedAnimationPolicy == FULL);
+                showHideOverlay(true, true);
+                return;
+            }
+        }
+        if (mAppliedOpen == show) {
+            return;
+        }
+        mAppliedOpen = show;
+        cancelQualitySample();
+        AnimationQualityController qualityController = mAnimationQualityController;
+        if (qualityController != null && show && animate) {
+            mQualityMeasurement = qualityController.beginSample();
+        }
         visibilitySetup(show, animate, mInstanceState.mUseReverseAnimationOnClose);
+        if (animate) {
+            mAnimationState = show ? OPENING : CLOSING;
+        } else {
+            mAnimationState = show ? OPEN : CLOSED;
+        }
         updateMainFabDrawable(animate);
-        updateMainFabBackgroundColor();
-        updateMainFabIconColor();
+        if (!animate || !mMainFabColorCrossFade || getMainFabAnimationRotateAngle() == 0) {
+            // Otherwise the rotation drives the colors
+            updateMainFabBackgroundColor();
+            updateMainFabIconColor();
+        }
         showHideOverlay(show, animate);
-        if (mOnChangeListener != null) {
-            mOnChangeListener.onToggleChanged(show);
+        notifyToggleChanged(show);
+    }
+
+    private void notifyToggleChanged(boolean show) {
+        if (mNotifiedOpen != show) {
+            mNotifiedOpen = show;
+            if (mOnChangeListener != null) {
+                mOnChangeListener.onToggleChanged(show);
+            }
         }
     }
 
@@ -838,13 +2257,13 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
                     // I don't know why if I set directly the rotated Drawable with `setImageDrawable`
                     // it will be transparent/empty on Android API 20 or lower (works on API 21 or higher).
 
-                    Bitmap bitmap = UiUtils.getBitmapFromDrawable(mMainFabOpenedDrawable);
-                    mMainFab.setImageBitmap(bitmap);
+                    mMainFab.setImageBitmap(getMainFabOpenedBitmap());
                 }
             }
-            UiUtils.rotateForward(mMainFab, getMainFabAnimationRotateAngle(), animate);
+            UiUtils.rotateForward(mMainFab, getMainFabAnimationRotateAngle(),
+                    animate && mAppliedAnimationPolicy == FULL);
         } else {
-            UiUtils.rotateBackward(mMainFab, animate);
+            UiUtils.rotateBackward(mMainFab, animate && mAppliedAnimationPolicy == FULL);
             mMainFab.setImageDrawable(mMainFabClosedDrawable);
             if (mMainFabClosedDrawable != null) {
 
@@ -862,16 +2281,102 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     }
 
     private void updateMainFabBackgroundColor() {
-        int color;
-        if (isOpen()) {
-            color = getMainFabOpenedBackgroundColor();
-        } else {
-            color = getMainFabClosedBackgroundColor();
+        mMainFab.setBackgroundTintList(getMainFabBackgroundColorTransition().get(isOpen() ? 1F : 0F));
+    }
+
+    /**
+     * Returns the background colors of the main fab, from closed to opened, creating them again only when they changed.
+     * Toggling then sets the same {@link ColorStateList} instances, which allocates nothing.
+     */
+    private ColorTransition getMainFabBackgroundColorTransition() {
+        int closedColor = getMainFabClosedBackgroundColor();
+        int openedColor = getMainFabOpenedBackgroundColor();
+        if (closedColor == RESOURCE_NOT_SET) {
+            closedColor = getDefaultMainFabBackgroundColor();
         }
-        if (color != RESOURCE_NOT_SET) {
-            mMainFab.setBackgroundTintList(ColorStateList.valueOf(color));
-        } else {
-            mMainFab.setBackgroundTintList(ColorStateList.valueOf(UiUtils.getAccentColor(getContext())));
+        if (openedColor == RESOURCE_NOT_SET) {
+            openedColor = getDefaultMainFabBackgroundColor();
+        }
+        ColorTransition transition = mMainFabBackgroundColorTransition;
+        if (transition == null || !transition.hasColors(closedColor, openedColor)) {
+            transition = new ColorTransition(closedColor, openedColor);
+            mMainFabBackgroundColorTransition = transition;
+        }
+        return transition;
+    }
+
+    private ColorTransition getMainFabIconColorTransition() {
+        int closedColor = getMainFabClosedIconColor();
+        int openedColor = getMainFabOpenedIconColor();
+        ColorTransition transition = mMainFabIconColorTransition;
+        if (transition == null || !transition.hasColors(closedColor, openedColor)) {
+            transition = new ColorTransition(closedColor, openedColor);
+            mMainFabIconColorTransition = transition;
+        }
+        return transition;
+    }
+
+    /**
+     * Creates all the steps of the color cross-fades when they are enabled, so that the first toggle after the colors
+     * are set allocates nothing. Without cross-fade, only the closed and opened colors created by the updates are used.
+     */
+    private void prepareMainFabColorTransitions() {
+        if (!mMainFabColorCrossFade) {
+            return;
+        }
+        getMainFabBackgroundColorTransition().prepare();
+        if (getMainFabClosedIconColor() != RESOURCE_NOT_SET && getMainFabOpenedIconColor() != RESOURCE_NOT_SET) {
+            getMainFabIconColorTransition().prepare();
+        }
+    }
+
+    /**
+     * Cross-fades the main fab colors at the given progress, from 0 (closed) to 1 (opened). The icon color is
+     * cross-faded only if both its colors are set.
+     */
+    private void applyMainFabColorProgress(float progress) {
+        mMainFab.setBackgroundTintList(getMainFabBackgroundColorTransition().get(progress));
+        if (getMainFabClosedIconColor() != RESOURCE_NOT_SET && getMainFabOpenedIconColor() != RESOURCE_NOT_SET) {
+            ImageViewCompat.setImageTintList(mMainFab, getMainFabIconColorTransition().get(progress));
+        }
+    }
+
+    @ColorInt
+    private int getDefaultMainFabBackgroundColor() {
+        if (!mDefaultMainFabBackgroundColorResolved) {
+            mDefaultMainFabBackgroundColor = UiUtils.getAccentColor(getContext());
+            mDefaultMainFabBackgroundColorResolved = true;
+        }
+        return mDefaultMainFabBackgroundColor;
+    }
+
+    /**
+     * Returns the opened drawable rasterized, see the workaround in {@link #updateMainFabDrawable(boolean)}. The
+     * bitmap is cached, keyed by drawable, rotation angle, size and density, so that toggling allocates no bitmap.
+     */
+    @Nullable
+    private Bitmap getMainFabOpenedBitmap() {
+        Drawable sourceDrawable = mMainFabCloseOriginalDrawable;
+        Drawable openedDrawable = mMainFabOpenedDrawable;
+        if (sourceDrawable == null || openedDrawable == null) {
+            return null;
+        }
+        return mMainFabOpenedRasterCache.getBitmap(sourceDrawable, getMainFabAnimationRotateAngle(), openedDrawable,
+                getResources().getDisplayMetrics().densityDpi);
+    }
+
+    private void schedulePrewarm() {
+        if (!mPrewarmScheduled && ViewCompat.isAttachedToWindow(this)) {
+            mPrewarmScheduled = true;
+            getViewTreeObserver().addOnPreDrawListener(mPrewarmPreDrawListener);
+        }
+    }
+
+    private void cancelPrewarm() {
+        if (mPrewarmScheduled) {
+            mPrewarmScheduled = false;
+            getViewTreeObserver().removeOnPreDrawListener(mPrewarmPreDrawListener);
+            Looper.myQueue().removeIdleHandler(mPrewarmIdleHandler);
         }
     }
 
@@ -883,20 +2388,20 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
             color = getMainFabClosedIconColor();
         }
         if (color != RESOURCE_NOT_SET) {
-            ImageViewCompat.setImageTintList(mMainFab, ColorStateList.valueOf(color));
+            ImageViewCompat.setImageTintList(mMainFab, getMainFabIconColorTransition().get(isOpen() ? 1F : 0F));
         }
     }
 
     private void updateElevation() {
         if (isOpen()) {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                setElevation(getResources().getDimension(R.dimen.sd_open_elevation));
+                setElevation(ResourceCache.getDimension(getContext(), R.dimen.sd_open_elevation));
             } else {
                 bringToFront();
             }
         } else {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                setElevation(getResources().getDimension(R.dimen.sd_close_elevation));
+                setElevation(ResourceCache.getDimension(getContext(), R.dimen.sd_close_elevation));
             }
         }
     }
@@ -913,26 +2418,34 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
 
     @Nullable
     private FabWithLabelView findFabWithLabelViewById(@IdRes int id) {
-        for (FabWithLabelView fabWithLabelView : mFabWithLabelViews) {
-            if (fabWithLabelView.getId() == id) {
-                return fabWithLabelView;
-            }
-        }
-        return null;
+        return mFabWithLabelViewsById.get(id);
     }
 
     /**
      * Set menus visibility (visible or invisible).
      */
     private void visibilitySetup(boolean visible, boolean animate, boolean reverseAnimation) {
+        cancelBatchTransition();
+        if (animate && mActionItemChoreographer.isRunning()) {
+            // Reverse from the current progress instead of restarting from scratch
+            mActionItemChoreographer.reverse(visible, mActionItemsAnimationEndRunnable);
+            return;
+        }
+        mActionItemChoreographer.cancel();
+        ActionItemsRecyclerView recyclerView = mActionItemsRecyclerView;
+        if (recyclerView != null) {
+            virtualizedVisibilitySetup(recyclerView, visible, animate, reverseAnimation);
+            return;
+        }
         int size = mFabWithLabelViews.size();
         if (visible) {
             for (int i = 0; i < size; i++) {
                 FabWithLabelView fabWithLabelView = mFabWithLabelViews.get(i);
+                ViewCompat.animate(fabWithLabelView).cancel();
                 fabWithLabelView.setAlpha(1);
                 fabWithLabelView.setVisibility(VISIBLE);
-                if (animate) {
-                    showWithAnimationFabWithLabelView(fabWithLabelView, i * ACTION_ANIM_DELAY);
+                if (!animate) {
+                    resetActionItemView(fabWithLabelView);
                 }
                 if (i == 0) {
                     fabWithLabelView.getFab().requestFocus();
@@ -943,60 +2456,133 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
                     getMainFab().setNextFocusForwardId(getMainFab().getId());
                 }
             }
+            if (animate) {
+                startActionItemChoreography(mFabWithLabelViews, true, true, mActionItemsAnimationEndRunnable);
+            }
+        } else if (animate) {
+            startActionItemChoreography(mFabWithLabelViews, false, reverseAnimation, mActionItemsAnimationEndRunnable);
         } else {
             for (int i = 0; i < size; i++) {
-                int index = reverseAnimation ? size - 1 - i : i;
-                FabWithLabelView fabWithLabelView = mFabWithLabelViews.get(index);
-                if (animate) {
-                    if (reverseAnimation) {
-                        hideWithAnimationFabWithLabelView(fabWithLabelView, i * ACTION_ANIM_DELAY);
-                    } else {
-                        UiUtils.shrinkAnim(fabWithLabelView, false);
-                    }
-                } else {
-                    fabWithLabelView.setAlpha(0);
-                    fabWithLabelView.setVisibility(GONE);
-                }
+                FabWithLabelView fabWithLabelView = mFabWithLabelViews.get(i);
+                fabWithLabelView.setAlpha(0);
+                fabWithLabelView.setVisibility(GONE);
+            }
+        }
+    }
+
+    /**
+     * Set the virtualized list visibility. Only the action items currently laid out, the visible ones, are animated.
+     */
+    private void virtualizedVisibilitySetup(RecyclerView recyclerView, boolean visible, boolean animate,
+                                            boolean reverseAnimation) {
+        if (visible) {
+            recyclerView.setVisibility(VISIBLE);
+            for (int i = 0; i < recyclerView.getChildCount(); i++) {
+                resetActionItemView(getChildFabWithLabelView(recyclerView, recyclerView.getChildAt(i)));
             }
+            recyclerView.scrollToPosition(0);
+            if (animate && !mShowActionItemsScheduled) {
+                mShowActionItemsScheduled = true;
+                getViewTreeObserver().addOnPreDrawListener(mShowActionItemsPreDrawListener);
+            }
+        } else if (animate) {
+            startActionItemChoreography(getLaidOutActionItemViews(recyclerView), false, reverseAnimation,
+                    mActionItemsAnimationEndRunnable);
+        } else {
+            recyclerView.setVisibility(GONE);
+        }
+    }
+
+    /**
+     * Returns the views of the virtualized list currently laid out, in adapter order. The returned list is reused.
+     */
+    private List<FabWithLabelView> getLaidOutActionItemViews(RecyclerView recyclerView) {
+        mLaidOutActionItemViews.clear();
+        int firstPosition = Integer.MAX_VALUE;
+        int lastPosition = RecyclerView.NO_POSITION;
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            int position = recyclerView.getChildAdapterPosition(recyclerView.getChildAt(i));
+            if (position != RecyclerView.NO_POSITION) {
+                firstPosition = Math.min(firstPosition, position);
+                lastPosition = Math.max(lastPosition, position);
+            }
+        }
+        for (int position = firstPosition; position <= lastPosition; position++) {
+            RecyclerView.ViewHolder holder = recyclerView.findViewHolderForAdapterPosition(position);
+            if (holder != null) {
+                mLaidOutActionItemViews.add(((ActionItemViewHolder) holder).mFabWithLabelView);
+            }
+        }
+        return mLaidOutActionItemViews;
+    }
+
+    /**
+     * Animates the given action items with a single timeline. The stagger between two action items is reduced when
+     * needed to respect {@link #getMaxAnimationDuration()}.
+     */
+    private void startActionItemChoreography(List<FabWithLabelView> views, boolean show, boolean staggered,
+                                             @Nullable Runnable endAction) {
+        boolean reduced = mAppliedAnimationPolicy == REDUCED;
+        // Only the reverse close shrinks the action items, the default one fades them all together
+        boolean fadeOut = !show && !staggered;
+        int quality = getAnimationQuality();
+        if (fadeOut) {
+            computeFadeOutChoreography();
+        } else {
+            computeActionItemChoreography(views.size(), staggered && !reduced
+                    && quality == AnimationQualityController.Quality.HIGH);
         }
+        if (quality == AnimationQualityController.Quality.LOW) {
+            mChoreographyDuration /= 2;
+        }
+        mActionItemChoreographer.setFadeOnly(reduced || fadeOut);
+        mActionItemChoreographer.setUseLayers(quality == AnimationQualityController.Quality.HIGH);
+        mActionItemChoreographer.setHideLabelShadows(quality == AnimationQualityController.Quality.LOW);
+        mActionItemChoreographer.start(views, show, mChoreographyDuration, mChoreographyStagger,
+                mActionItemProgressCurve, endAction);
     }
 
-    private void showWithAnimationFabWithLabelView(FabWithLabelView fabWithLabelView, int delay) {
-        ViewCompat.animate(fabWithLabelView).cancel();
-        UiUtils.enlargeAnim(fabWithLabelView.getFab(), delay);
-        if (fabWithLabelView.isLabelEnabled()) {
-            CardView labelBackground = fabWithLabelView.getLabelBackground();
-            ViewCompat.animate(labelBackground).cancel();
-            Animation animation = AnimationUtils.loadAnimation(getContext(), R.anim.sd_fade_and_translate_in);
-            animation.setStartOffset(delay);
-            labelBackground.startAnimation(animation);
+    /**
+     * Computes the duration and the stagger fraction of a choreography of the given number of action items into
+     * {@link #mChoreographyDuration} and {@link #mChoreographyStagger}.
+     */
+    private void computeActionItemChoreography(int count, boolean staggered) {
+        long itemDuration = getActionItemAnimator().getDuration();
+        float stagger = staggered && count > 1 ? ACTION_ANIM_DELAY : 0F;
+        float duration = itemDuration + (count - 1) * stagger;
+        if (mMaxAnimationDuration > 0 && duration > mMaxAnimationDuration) {
+            duration = mMaxAnimationDuration;
+            stagger = count > 1 ? Math.max(0F, (duration - itemDuration) / (count - 1)) : 0F;
         }
+        mChoreographyDuration = (long) duration;
+        mChoreographyStagger = duration > 0 ? stagger / duration : 0F;
+    }
+
+    /**
+     * Computes the choreography of the default close, a fade of all the action items over
+     * {@code sd_close_animation_duration}, into {@link #mChoreographyDuration} and {@link #mChoreographyStagger}.
+     */
+    private void computeFadeOutChoreography() {
+        mChoreographyDuration = ResourceCache.getInteger(getContext(), R.integer.sd_close_animation_duration);
+        mChoreographyStagger = 0F;
     }
 
-    private void hideWithAnimationFabWithLabelView(final FabWithLabelView fabWithLabelView, int delay) {
+    private void showWithAnimationFabWithLabelView(FabWithLabelView fabWithLabelView, int delay) {
         ViewCompat.animate(fabWithLabelView).cancel();
-        UiUtils.shrinkAnim(fabWithLabelView.getFab(), delay);
+        ActionItemAnimator actionItemAnimator = getActionItemAnimator();
+        actionItemAnimator.enlarge(fabWithLabelView.getFab(), delay);
         if (fabWithLabelView.isLabelEnabled()) {
-            final CardView labelBackground = fabWithLabelView.getLabelBackground();
-            ViewCompat.animate(labelBackground).cancel();
-            Animation animation = AnimationUtils.loadAnimation(getContext(), R.anim.sd_fade_and_translate_out);
-            animation.setAnimationListener(new Animation.AnimationListener() {
-                @Override
-                public void onAnimationEnd(Animation animation) {
-                    labelBackground.setVisibility(View.GONE);
-                }
-
-                @Override
-                public void onAnimationStart(Animation animation) {
-                }
+            actionItemAnimator.fadeAndTranslateIn(fabWithLabelView.getLabelBackground(), delay);
+        }
+    }
 
-                @Override
-                public void onAnimationRepeat(Animation animation) {
-                }
-            });
-            animation.setStartOffset(delay);
-            labelBackground.startAnimation(animation);
+    private ActionItemAnimator getActionItemAnimator() {
+        ActionItemAnimator actionItemAnimator = mActionItemAnimator;
+        if (actionItemAnimator == null) {
+            actionItemAnimator = new ActionItemAnimator(getContext());
+            mActionItemAnimator = actionItemAnimator;
         }
+        return actionItemAnimator;
     }
 
     /**
@@ -1011,13 +2597,47 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
         boolean onMainActionSelected();
 
         /**
-         * Called when the toggle state of the speed dial menu changes (eg. it is opened or closed).
+         * Called when the toggle state of the speed dial menu changes (eg. it is opened or closed). It is called
+         * synchronously by {@link #open()}, {@link #close()} and {@link #toggle()}, while the animation can start on
+         * the next frame.
          *
          * @param isOpen true if the speed dial is open, false otherwise.
          */
         void onToggleChanged(boolean isOpen);
     }
 
+    /**
+     * Computes the progress of each action item from the progress of the whole open or close animation.
+     *
+     * @see #setActionItemProgressCurve(ActionItemProgressCurve)
+     */
+    public interface ActionItemProgressCurve {
+        /**
+         * Returns the progress of an action item. It is called for every action item on every frame of the
+         * animation, so it should not allocate.
+         *
+         * @param index    position of the action item in the animation, 0 being the first one to appear
+         * @param count    number of animated action items
+         * @param progress progress of the whole animation, from 0 (closed) to 1 (open)
+         * @param stagger  fraction of the whole animation between the starts of two consecutive action items
+         * @return the progress of the action item, from 0 (hidden) to 1 (shown)
+         */
+        float getItemProgress(int index, int count, float progress, float stagger);
+    }
+
+    /**
+     * Listener notified when an asynchronous change of the action items has been applied.
+     *
+     * @see #addActionItemAsync(SpeedDialActionItem, OnActionItemsInflatedListener)
+     * @see #setActionItemsAsync(List, OnActionItemsInflatedListener)
+     */
+    public interface OnActionItemsInflatedListener {
+        /**
+         * Called on the main thread once the action items and their views have been added.
+         */
+        void onActionItemsInflated();
+    }
+
     /**
      * Listener for handling events on option fab's.
      */
@@ -1031,6 +2651,122 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
         boolean onActionSelected(SpeedDialActionItem actionItem);
     }
 
+    /**
+     * List used by the virtualized mode. Its size is bounded so that the main FAB always fits next to it, and it
+     * scrolls when the action items don't fit.
+     */
+    private static class ActionItemsRecyclerView extends RecyclerView {
+        private final LinearLayoutManager mLayoutManager;
+        private int mReservedSize = 0;
+
+        ActionItemsRecyclerView(Context context) {
+            super(context);
+            mLayoutManager = new LinearLayoutManager(context);
+            setLayoutManager(mLayoutManager);
+        }
+
+        @Override
+        protected void onMeasure(int widthSpec, int heightSpec) {
+            if (mLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL) {
+                super.onMeasure(widthSpec, reserveSize(heightSpec));
+            } else {
+                super.onMeasure(reserveSize(widthSpec), heightSpec);
+            }
+        }
+
+        private int reserveSize(int measureSpec) {
+            if (mReservedSize == 0 || MeasureSpec.getMode(measureSpec) == MeasureSpec.UNSPECIFIED) {
+                return measureSpec;
+            }
+            return MeasureSpec.makeMeasureSpec(Math.max(0, MeasureSpec.getSize(measureSpec) - mReservedSize),
+                    MeasureSpec.AT_MOST);
+        }
+    }
+
+    private static class ActionItemViewHolder extends RecyclerView.ViewHolder {
+        private final FabWithLabelView mFabWithLabelView;
+
+        ActionItemViewHolder(View itemView, FabWithLabelView fabWithLabelView) {
+            super(itemView);
+            mFabWithLabelView = fabWithLabelView;
+        }
+    }
+
+    /**
+     * Binds the action items to the views of the virtualized list. Each {@link FabWithLabelView} is wrapped in a
+     * {@link LinearLayout}, so that it keeps the same layout params it has in this view. The view type is the theme of
+     * the action item, which can't change when rebinding a view.
+     */
+    private class ActionItemsAdapter extends RecyclerView.Adapter<ActionItemViewHolder> {
+        ActionItemsAdapter() {
+            setHasStableIds(true);
+        }
+
+        @Override
+        public int getItemCount() {
+            return getActionItemCount();
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return getActionItem(position).getId();
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return getActionItem(position).getTheme();
+        }
+
+        @NonNull
+        @Override
+        public ActionItemViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            SpeedDialActionItem actionItem = null;
+            for (int i = 0; i < getActionItemCount() && actionItem == null; i++) {
+                if (getActionItem(i).getTheme() == viewType) {
+                    actionItem = getActionItem(i);
+                }
+            }
+            if (actionItem == null) {
+                throw new IllegalStateException("No action item with theme " + viewType);
+            }
+            FabWithLabelView fabWithLabelView = mFabWithLabelViewPool.getFabWithLabelView(getContext(), actionItem);
+            fabWithLabelView.setOnActionSelectedListener(mOnActionSelectedProxyListener);
+            LinearLayout itemView = new LinearLayout(parent.getContext());
+            itemView.addView(fabWithLabelView);
+            return new ActionItemViewHolder(itemView, fabWithLabelView);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ActionItemViewHolder holder, int position) {
+            SpeedDialActionItem actionItem = getActionItem(position);
+            FabWithLabelView fabWithLabelView = holder.mFabWithLabelView;
+            if (fabWithLabelView.getSpeedDialActionItem() != actionItem) {
+                fabWithLabelView.setSpeedDialActionItem(actionItem);
+            }
+            int orientation = getOrientation();
+            int childOrientation = orientation == VERTICAL ? HORIZONTAL : VERTICAL;
+            if (fabWithLabelView.getOrientation() != childOrientation) {
+                fabWithLabelView.setOrientation(childOrientation);
+            }
+            LinearLayout itemView = (LinearLayout) holder.itemView;
+            itemView.setOrientation(orientation);
+            ViewGroup.LayoutParams layoutParams = itemView.getLayoutParams();
+            if (layoutParams == null) {
+                layoutParams = new RecyclerView.LayoutParams(0, 0);
+            }
+            layoutParams.width = orientation == VERTICAL ? ViewGroup.LayoutParams.MATCH_PARENT
+                    : ViewGroup.LayoutParams.WRAP_CONTENT;
+            layoutParams.height = orientation == VERTICAL ? ViewGroup.LayoutParams.WRAP_CONTENT
+                    : ViewGroup.LayoutParams.MATCH_PARENT;
+            itemView.setLayoutParams(layoutParams);
+        }
+
+        @Override
+        public void onViewRecycled(@NonNull ActionItemViewHolder holder) {
+            resetActionItemView(holder.mFabWithLabelView);
+        }
+    }
+
     @Retention(SOURCE)
     @IntDef({TOP, BOTTOM, LEFT, RIGHT})
     public @interface ExpansionMode {
@@ -1040,6 +2776,24 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
         int RIGHT = 3;
     }
 
+    @Retention(SOURCE)
+    @IntDef({AUTO, FULL, REDUCED, NONE})
+    public @interface AnimationPolicy {
+        int AUTO = 0;
+        int FULL = 1;
+        int REDUCED = 2;
+        int NONE = 3;
+    }
+
+    @Retention(SOURCE)
+    @IntDef({CLOSED, OPENING, OPEN, CLOSING})
+    public @interface AnimationState {
+        int CLOSED = 0;
+        int OPENING = 1;
+        int OPEN = 2;
+        int CLOSING = 3;
+    }
+
     private static class InstanceState implements Parcelable {
         private boolean mIsOpen = false;
         @ColorInt
@@ -1054,7 +2808,6 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
         private int mExpansionMode = TOP;
         private float mMainFabAnimationRotateAngle = DEFAULT_ROTATE_ANGLE;
         private boolean mUseReverseAnimationOnClose = false;
-        private ArrayList<SpeedDialActionItem> mSpeedDialActionItems = new ArrayList<>();
 
         @Override
         public int describeContents() {
@@ -1071,7 +2824,6 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
             dest.writeInt(this.mExpansionMode);
             dest.writeFloat(this.mMainFabAnimationRotateAngle);
             dest.writeByte(this.mUseReverseAnimationOnClose ? (byte) 1 : (byte) 0);
-            dest.writeTypedList(this.mSpeedDialActionItems);
         }
 
         public InstanceState() {
@@ -1086,7 +2838,6 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
             this.mExpansionMode = in.readInt();
             this.mMainFabAnimationRotateAngle = in.readFloat();
             this.mUseReverseAnimationOnClose = in.readByte() != 0;
-            this.mSpeedDialActionItems = in.createTypedArrayList(SpeedDialActionItem.CREATOR);
         }
 
         public static final Creator<InstanceState> CREATOR = new Creator<InstanceState>() {
@@ -1102,6 +2853,79 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
         };
     }
 
+    /**
+     * Saved state of a {@link SpeedDialView}: its {@link InstanceState} and, for each action item, its ID, the hash of
+     * its content and the item itself only when it wasn't already attached when the view was last restored. Items
+     * are matched by ID and hash on restore, so the views attached meanwhile are kept instead of inflated again.
+     */
+    static class SavedState extends BaseSavedState {
+        private static final int VERSION = 2;
+        @Nullable
+        private InstanceState mInstanceState;
+        private int[] mIds = new int[0];
+        private int[] mContentHashes = new int[0];
+        private SpeedDialActionItem[] mActionItems = new SpeedDialActionItem[0];
+
+        SavedState(@Nullable Parcelable superState, InstanceState instanceState) {
+            super(superState);
+            mInstanceState = instanceState;
+        }
+
+        protected SavedState(Parcel in) {
+            super(in);
+            if (in.readInt() != VERSION) {
+                // Written by another version of the library: nothing is restored
+                return;
+            }
+            mInstanceState = InstanceState.CREATOR.createFromParcel(in);
+            int count = in.readInt();
+            mIds = new int[count];
+            mContentHashes = new int[count];
+            mActionItems = new SpeedDialActionItem[count];
+            for (int i = 0; i < count; i++) {
+                mIds[i] = in.readInt();
+                mContentHashes[i] = in.readInt();
+                if (in.readByte() != 0) {
+                    mActionItems[i] = SpeedDialActionItem.CREATOR.createFromParcel(in);
+                }
+            }
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            super.writeToParcel(dest, flags);
+            InstanceState instanceState = mInstanceState;
+            if (instanceState == null) {
+                dest.writeInt(0);
+                return;
+            }
+            dest.writeInt(VERSION);
+            instanceState.writeToParcel(dest, flags);
+            dest.writeInt(mIds.length);
+            for (int i = 0; i < mIds.length; i++) {
+                dest.writeInt(mIds[i]);
+                dest.writeInt(mContentHashes[i]);
+                SpeedDialActionItem actionItem = mActionItems[i];
+                dest.writeByte(actionItem != null ? (byte) 1 : (byte) 0);
+                if (actionItem != null) {
+                    actionItem.writeToParcel(dest, flags);
+                }
+            }
+        }
+
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel source) {
+                return new SavedState(source);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
     /**
      * Behavior designed for use with {@link View} instances. Its main function
      * is to move {@link View} views so that any displayed {@link Snackbar}s do
@@ -1110,12 +2934,30 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
     @SuppressWarnings({"unused", "WeakerAccess"})
     public static class SnackbarBehavior extends CoordinatorLayout.Behavior<View> {
         private static final boolean AUTO_HIDE_DEFAULT = true;
+        static final int DEPENDENCY_OTHER = 0;
+        static final int DEPENDENCY_APP_BAR_LAYOUT = 1;
+        static final int DEPENDENCY_BOTTOM_SHEET = 2;
+        static final int DEPENDENCY_RECYCLER_VIEW = 3;
 
-        @Nullable
-        private Rect mTmpRect;
         @Nullable
         private OnVisibilityChangedListener mInternalAutoHideListener;
         private boolean mAutoHideEnabled;
+        @Nullable
+        private AppBarLayout mObservedAppBarLayout;
+        @Nullable
+        private View mAppBarLayoutChild;
+        @Nullable
+        private Rect mTmpRect;
+        private final AppBarLayout.OnOffsetChangedListener mOnOffsetChangedListener =
+                new AppBarLayout.OnOffsetChangedListener() {
+                    @Override
+                    public void onOffsetChanged(AppBarLayout appBarLayout, int verticalOffset) {
+                        View child = mAppBarLayoutChild;
+                        if (child != null) {
+                            updateFabVisibilityForAppBarLayout(appBarLayout, child);
+                        }
+                    }
+                };
 
         public SnackbarBehavior() {
             super();
@@ -1132,13 +2974,33 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
             a.recycle();
         }
 
-        private static boolean isBottomSheet(@NonNull View view) {
+        /**
+         * Returns the type of a dependency. CoordinatorLayout asks for the dependencies on every layout, so the type
+         * is cached in a tag of the dependency, until its layout params or its behavior change.
+         */
+        static int getDependencyType(@NonNull View view) {
             final ViewGroup.LayoutParams lp = view.getLayoutParams();
-            if (lp instanceof CoordinatorLayout.LayoutParams) {
-                return ((CoordinatorLayout.LayoutParams) lp)
-                        .getBehavior() instanceof BottomSheetBehavior;
+            CoordinatorLayout.Behavior behavior = lp instanceof CoordinatorLayout.LayoutParams
+                    ? ((CoordinatorLayout.LayoutParams) lp).getBehavior() : null;
+            Object tag = view.getTag(R.id.sd_dependency_type);
+            if (tag instanceof DependencyType) {
+                DependencyType dependencyType = (DependencyType) tag;
+                if (dependencyType.mLayoutParams == lp && dependencyType.mBehavior == behavior) {
+                    return dependencyType.mType;
+                }
             }
-            return false;
+            int type;
+            if (view instanceof AppBarLayout) {
+                type = DEPENDENCY_APP_BAR_LAYOUT;
+            } else if (behavior instanceof BottomSheetBehavior) {
+                type = DEPENDENCY_BOTTOM_SHEET;
+            } else if (view instanceof RecyclerView) {
+                type = DEPENDENCY_RECYCLER_VIEW;
+            } else {
+                type = DEPENDENCY_OTHER;
+            }
+            view.setTag(R.id.sd_dependency_type, new DependencyType(type, lp, behavior));
+            return type;
         }
 
         /**
@@ -1171,14 +3033,24 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
             }
         }
 
+        @Override
+        public void onDetachedFromLayoutParams() {
+            super.onDetachedFromLayoutParams();
+            observeAppBarLayout(null, null);
+        }
+
         @Override
         public boolean onDependentViewChanged(CoordinatorLayout parent, View child,
                                               View dependency) {
-            if (dependency instanceof AppBarLayout) {
+            int dependencyType = getDependencyType(dependency);
+            if (dependencyType == DEPENDENCY_APP_BAR_LAYOUT) {
                 // If we're depending on an AppBarLayout we will show/hide it automatically
-                // if the VIEW is anchored to the AppBarLayout
-                updateFabVisibilityForAppBarLayout(parent, (AppBarLayout) dependency, child);
-            } else if (isBottomSheet(dependency)) {
+                // if the VIEW is anchored to the AppBarLayout. Once observed, its offset changes drive it.
+                if (mObservedAppBarLayout != dependency) {
+                    observeAppBarLayout((AppBarLayout) dependency, child);
+                    updateFabVisibilityForAppBarLayout((AppBarLayout) dependency, child);
+                }
+            } else if (dependencyType == DEPENDENCY_BOTTOM_SHEET) {
                 updateFabVisibilityForBottomSheet(dependency, child);
             }
             return false;
@@ -1191,12 +3063,13 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
             final List<View> dependencies = parent.getDependencies(child);
             for (int i = 0, count = dependencies.size(); i < count; i++) {
                 final View dependency = dependencies.get(i);
-                if (dependency instanceof AppBarLayout) {
-                    if (updateFabVisibilityForAppBarLayout(
-                            parent, (AppBarLayout) dependency, child)) {
+                int dependencyType = getDependencyType(dependency);
+                if (dependencyType == DEPENDENCY_APP_BAR_LAYOUT) {
+                    observeAppBarLayout((AppBarLayout) dependency, child);
+                    if (updateFabVisibilityForAppBarLayout((AppBarLayout) dependency, child)) {
                         break;
                     }
-                } else if (isBottomSheet(dependency)) {
+                } else if (dependencyType == DEPENDENCY_BOTTOM_SHEET) {
                     if (updateFabVisibilityForBottomSheet(dependency, child)) {
                         break;
                     }
@@ -1254,19 +3127,41 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
             return true;
         }
 
-        private boolean updateFabVisibilityForAppBarLayout(CoordinatorLayout parent,
-                                                           AppBarLayout appBarLayout, View child) {
+        /**
+         * Listens to the offset changes of the given AppBarLayout, instead of the previous one.
+         */
+        private void observeAppBarLayout(@Nullable AppBarLayout appBarLayout, @Nullable View child) {
+            mAppBarLayoutChild = child;
+            AppBarLayout observedAppBarLayout = mObservedAppBarLayout;
+            if (observedAppBarLayout != appBarLayout) {
+                if (observedAppBarLayout != null) {
+                    observedAppBarLayout.removeOnOffsetChangedListener(mOnOffsetChangedListener);
+                }
+                if (appBarLayout != null) {
+                    appBarLayout.addOnOffsetChangedListener(mOnOffsetChangedListener);
+                }
+                mObservedAppBarLayout = appBarLayout;
+            }
+        }
+
+        private boolean updateFabVisibilityForAppBarLayout(AppBarLayout appBarLayout, View child) {
             if (!shouldUpdateVisibility(appBarLayout, child)) {
                 return false;
             }
 
-            if (mTmpRect == null) {
-                mTmpRect = new Rect();
+            ViewParent parent = child.getParent();
+            if (!(parent instanceof ViewGroup)) {
+                return false;
+            }
+            Rect rect = mTmpRect;
+            if (rect == null) {
+                rect = new Rect();
+                mTmpRect = rect;
             }
 
-            // First, let's get the visible rect of the dependency
-            final Rect rect = mTmpRect;
-            ViewGroupUtils.getDescendantRect(parent, appBarLayout, rect);
+            // First, let's get the visible rect of the dependency, which doesn't need to be a direct child of the
+            // parent. This only runs when the AppBarLayout moved, so the transformations of its parents are affordable
+            ViewGroupUtils.getDescendantRect((ViewGroup) parent, appBarLayout, rect);
 
             if (rect.bottom <= getMinimumHeightForVisibleOverlappingContent(appBarLayout)) {
                 // If the anchor's bottom is below the seam, we'll animate our VIEW out
@@ -1313,7 +3208,16 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
      */
     @SuppressWarnings({"unused", "WeakerAccess"})
     public static class ScrollingViewSnackbarBehavior extends SnackbarBehavior {
-        private boolean mWasShownAlready = false;
+        private static final int HIDE_THRESHOLD_TOUCH_SLOPS = 2;
+        private final ArrayList<AdapterObserver> mAdapterObservers = new ArrayList<>();
+        private int mHideThreshold = RESOURCE_NOT_SET;
+        private int mShowThreshold = RESOURCE_NOT_SET;
+        private int mMinFlingVelocity = RESOURCE_NOT_SET;
+        /**
+         * Distance scrolled in the current direction: positive downwards, negative upwards.
+         */
+        private int mScrollDistance = 0;
+        private boolean mFlingHandled = false;
 
         public ScrollingViewSnackbarBehavior() {
         }
@@ -1322,23 +3226,59 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
             super(context, attrs);
         }
 
+        /**
+         * Sets the distances to scroll in one direction before hiding or showing the view. Using a shorter distance
+         * to show the view than to hide it keeps small scrolls back and forth from toggling it.
+         *
+         * @param hideThreshold distance to scroll down before hiding the view, in pixels
+         * @param showThreshold distance to scroll up before showing the view, in pixels
+         */
+        public void setScrollThresholds(int hideThreshold, int showThreshold) {
+            mHideThreshold = Math.max(0, hideThreshold);
+            mShowThreshold = Math.max(0, showThreshold);
+        }
+
         @Override
         public boolean onStartNestedScroll(@NonNull CoordinatorLayout coordinatorLayout, @NonNull View child, @NonNull
                 View directTargetChild, @NonNull View target, int axes, int type) {
+            if ((axes & ViewCompat.SCROLL_AXIS_VERTICAL) == 0) {
+                return false;
+            }
+            if (type == ViewCompat.TYPE_TOUCH) {
+                mFlingHandled = false;
+                mScrollDistance = 0;
+            }
             return true;
         }
 
+        @Override
+        public boolean onNestedPreFling(@NonNull CoordinatorLayout coordinatorLayout, @NonNull View child,
+                                        @NonNull View target, float velocityX, float velocityY) {
+            resolveThresholds(child);
+            if (Math.abs(velocityY) >= mMinFlingVelocity) {
+                // The direction of the fling decides, the scroll events of the fling are then ignored
+                mFlingHandled = true;
+                setHidden(child, velocityY > 0);
+            }
+            return false;
+        }
+
         @Override
         public boolean layoutDependsOn(CoordinatorLayout parent, View child, View dependency) {
-            if (!mWasShownAlready
-                    && dependency instanceof RecyclerView
-                    && (
-                    ((RecyclerView) dependency).getAdapter() == null
-                            || ((RecyclerView) dependency).getAdapter().getItemCount() == 0)) {
-                show(child);
-                mWasShownAlready = true;
+            if (getDependencyType(dependency) == DEPENDENCY_RECYCLER_VIEW) {
+                observeAdapter((RecyclerView) dependency, child);
+                return true;
             }
-            return dependency instanceof RecyclerView || super.layoutDependsOn(parent, child, dependency);
+            return super.layoutDependsOn(parent, child, dependency);
+        }
+
+        @Override
+        public void onDetachedFromLayoutParams() {
+            super.onDetachedFromLayoutParams();
+            for (int i = 0; i < mAdapterObservers.size(); i++) {
+                mAdapterObservers.get(i).setAdapter(null);
+            }
+            mAdapterObservers.clear();
         }
 
         @Override
@@ -1346,13 +3286,242 @@ public class SpeedDialView extends LinearLayout implements CoordinatorLayout.Att
                 target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int type, @NonNull int[] consumed) {
             super.onNestedScroll(coordinatorLayout, child, target, dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed,
                     type, consumed);
-            mWasShownAlready = false;
-            if (dyConsumed > 0 && child.getVisibility() == View.VISIBLE) {
-                hide(child);
-            } else if (dyConsumed < 0) {
-                show(child);
+            if (dyConsumed == 0 || (mFlingHandled && type == ViewCompat.TYPE_NON_TOUCH)) {
+                return;
+            }
+            resolveThresholds(child);
+            if ((dyConsumed > 0) != (mScrollDistance > 0)) {
+                // The direction changed
+                mScrollDistance = 0;
+            }
+            mScrollDistance += dyConsumed;
+            if (mScrollDistance > mHideThreshold && child.getVisibility() == View.VISIBLE) {
+                setHidden(child, true);
+            } else if (mScrollDistance < -mShowThreshold) {
+                setHidden(child, false);
+            }
+        }
+
+        /**
+         * Shows or hides the view, unless it already is or is being. The state is read from the view, since the app
+         * can show or hide it directly.
+         */
+        private void setHidden(View child, boolean hidden) {
+            if (hidden != isOrWillBeHidden(child)) {
+                if (hidden) {
+                    hide(child);
+                } else {
+                    show(child);
+                }
+            }
+        }
+
+        private static boolean isOrWillBeHidden(View child) {
+            if (child instanceof FloatingActionButton) {
+                return ((FloatingActionButton) child).isOrWillBeHidden();
+            } else if (child instanceof SpeedDialView) {
+                return ((SpeedDialView) child).isOrWillBeHidden();
+            }
+            return child.getVisibility() != View.VISIBLE;
+        }
+
+        /**
+         * Observes the adapter of the given RecyclerView, to show the view when the list is empty, where it can't be
+         * scrolled back. Called on every layout, so it only compares references when nothing changed.
+         */
+        private void observeAdapter(RecyclerView recyclerView, View child) {
+            AdapterObserver adapterObserver = null;
+            for (int i = 0; i < mAdapterObservers.size(); i++) {
+                if (mAdapterObservers.get(i).mRecyclerView == recyclerView) {
+                    adapterObserver = mAdapterObservers.get(i);
+                    break;
+                }
+            }
+            RecyclerView.Adapter adapter = recyclerView.getAdapter();
+            if (adapterObserver == null) {
+                adapterObserver = new AdapterObserver(recyclerView, child);
+                mAdapterObservers.add(adapterObserver);
+            } else if (adapterObserver.mAdapter == adapter) {
+                return;
+            }
+            adapterObserver.setAdapter(adapter);
+            adapterObserver.onChanged();
+        }
+
+        private void resolveThresholds(View child) {
+            if (mMinFlingVelocity == RESOURCE_NOT_SET) {
+                ViewConfiguration viewConfiguration = ViewConfiguration.get(child.getContext());
+                int touchSlop = viewConfiguration.getScaledTouchSlop();
+                if (mHideThreshold == RESOURCE_NOT_SET) {
+                    setScrollThresholds(HIDE_THRESHOLD_TOUCH_SLOPS * touchSlop, touchSlop);
+                }
+                mMinFlingVelocity = viewConfiguration.getScaledMinimumFlingVelocity();
             }
         }
+
+        /**
+         * Shows the view when the adapter of a RecyclerView becomes empty.
+         */
+        private final class AdapterObserver extends RecyclerView.AdapterDataObserver {
+            private final RecyclerView mRecyclerView;
+            private final View mChild;
+            @Nullable
+            private RecyclerView.Adapter mAdapter;
+
+            AdapterObserver(RecyclerView recyclerView, View child) {
+                mRecyclerView = recyclerView;
+                mChild = child;
+            }
+
+            void setAdapter(@Nullable RecyclerView.Adapter adapter) {
+                RecyclerView.Adapter oldAdapter = mAdapter;
+                if (oldAdapter != null) {
+                    oldAdapter.unregisterAdapterDataObserver(this);
+                }
+                if (adapter != null) {
+                    adapter.registerAdapterDataObserver(this);
+                }
+                mAdapter = adapter;
+            }
+
+            @Override
+            public void onChanged() {
+                RecyclerView.Adapter adapter = mAdapter;
+                if (adapter == null || adapter.getItemCount() == 0) {
+                    setHidden(mChild, false);
+                }
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                onChanged();
+            }
+        }
+    }
+
+    /**
+     * Type of a dependency of a {@link SnackbarBehavior}, with what it was computed from.
+     */
+    private static final class DependencyType {
+        private final int mType;
+        @Nullable
+        private final ViewGroup.LayoutParams mLayoutParams;
+        @Nullable
+        private final CoordinatorLayout.Behavior mBehavior;
+
+        DependencyType(int type, @Nullable ViewGroup.LayoutParams layoutParams,
+                       @Nullable CoordinatorLayout.Behavior behavior) {
+            mType = type;
+            mLayoutParams = layoutParams;
+            mBehavior = behavior;
+        }
+    }
+
+    /**
+     * Behavior that translates the view off the bottom of the screen while scrolling down and back while scrolling
+     * up, in proportion to the scrolled distance, like {@code HideBottomViewOnScrollBehavior}. When the scroll stops,
+     * the view snaps to the end it was moving towards.
+     * <p>
+     * Only {@link View#setTranslationY(float)} is changed: unlike {@link ScrollingViewSnackbarBehavior}, scrolling
+     * never triggers a layout or a visibility change. A {@link SpeedDialView} is closed as soon as it starts to leave
+     * the screen, which also hides its overlay, and its {@link SpeedDialOverlayLayout} is translated along with it, so
+     * that the overlay fading out follows the dial instead of staying behind.
+     */
+    public static class ScrollingViewTranslateBehavior extends SnackbarBehavior {
+        @Nullable
+        private Interpolator mSnapInterpolator;
+        private boolean mLastScrollDown = false;
+
+        public ScrollingViewTranslateBehavior() {
+        }
+
+        public ScrollingViewTranslateBehavior(Context context, AttributeSet attrs) {
+            super(context, attrs);
+        }
+
+        @Override
+        public boolean onStartNestedScroll(@NonNull CoordinatorLayout coordinatorLayout, @NonNull View child, @NonNull
+                View directTargetChild, @NonNull View target, int axes, int type) {
+            if ((axes & ViewCompat.SCROLL_AXIS_VERTICAL) == 0) {
+                return false;
+            }
+            // The scroll takes over from the snap animation
+            ViewCompat.animate(child).cancel();
+            View overlayLayout = getOverlayLayout(child);
+            if (overlayLayout != null) {
+                ViewCompat.animate(overlayLayout).cancel();
+            }
+            return true;
+        }
+
+        @Override
+        public void onNestedScroll(@NonNull CoordinatorLayout coordinatorLayout, @NonNull View child,
+                                   @NonNull View target, int dxConsumed, int dyConsumed, int dxUnconsumed,
+                                   int dyUnconsumed, int type, @NonNull int[] consumed) {
+            super.onNestedScroll(coordinatorLayout, child, target, dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed,
+                    type, consumed);
+            if (dyConsumed == 0) {
+                return;
+            }
+            mLastScrollDown = dyConsumed > 0;
+            float translationY = Math.max(0F, Math.min(getHiddenTranslationY(child),
+                    child.getTranslationY() + dyConsumed));
+            if (translationY > 0F && child instanceof SpeedDialView && ((SpeedDialView) child).isOpen()) {
+                ((SpeedDialView) child).close();
+            }
+            child.setTranslationY(translationY);
+            View overlayLayout = getOverlayLayout(child);
+            if (overlayLayout != null) {
+                overlayLayout.setTranslationY(translationY);
+            }
+        }
+
+        @Override
+        public void onStopNestedScroll(@NonNull CoordinatorLayout coordinatorLayout, @NonNull View child,
+                                       @NonNull View target, int type) {
+            super.onStopNestedScroll(coordinatorLayout, child, target, type);
+            float hiddenTranslationY = getHiddenTranslationY(child);
+            float translationY = child.getTranslationY();
+            if (translationY <= 0F || translationY >= hiddenTranslationY) {
+                return;
+            }
+            Interpolator snapInterpolator = mSnapInterpolator;
+            if (snapInterpolator == null) {
+                snapInterpolator = new FastOutSlowInInterpolator();
+                mSnapInterpolator = snapInterpolator;
+            }
+            long duration = ResourceCache.getInteger(child.getContext(), R.integer.sd_close_animation_duration);
+            if (child instanceof SpeedDialView && ((SpeedDialView) child).getResolvedAnimationPolicy() == NONE) {
+                duration = 0;
+            }
+            // Only translationY is animated, so the animation needs no listener and no layout pass
+            float snapTranslationY = mLastScrollDown ? hiddenTranslationY : 0F;
+            ViewCompat.animate(child)
+                    .translationY(snapTranslationY)
+                    .setDuration(duration)
+                    .setInterpolator(snapInterpolator)
+                    .start();
+            View overlayLayout = getOverlayLayout(child);
+            if (overlayLayout != null) {
+                ViewCompat.animate(overlayLayout)
+                        .translationY(snapTranslationY)
+                        .setDuration(duration)
+                        .setInterpolator(snapInterpolator)
+                        .start();
+            }
+        }
+
+        @Nullable
+        private static View getOverlayLayout(View child) {
+            return child instanceof SpeedDialView ? ((SpeedDialView) child).getOverlayLayout() : null;
+        }
+
+        private static float getHiddenTranslationY(View child) {
+            ViewGroup.LayoutParams layoutParams = child.getLayoutParams();
+            int bottomMargin = layoutParams instanceof ViewGroup.MarginLayoutParams
+                    ? ((ViewGroup.MarginLayoutParams) layoutParams).bottomMargin : 0;
+            return child.getHeight() + bottomMargin;
+        }
     }
 
     public static class NoBehavior extends CoordinatorLayout.Behavior<View> {
@@ -16,6 +16,9 @@
 
 package com.leinardi.android.speeddial;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
@@ -33,8 +36,7 @@ import android.util.TypedValue;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
-import android.view.animation.Animation;
-import android.view.animation.AnimationUtils;
+import android.view.animation.Interpolator;
 
 import androidx.annotation.Nullable;
 import androidx.core.view.ViewCompat;
@@ -45,47 +47,24 @@ import static android.view.View.GONE;
 import static android.view.View.VISIBLE;
 
 public class UiUtils {
+    /**
+     * Interpolators are stateless, so a single instance is shared by all the animations.
+     */
+    private static final Interpolator FAST_OUT_SLOW_IN_INTERPOLATOR = new FastOutSlowInInterpolator();
 
     private UiUtils() {
     }
 
     public static int getPrimaryColor(Context context) {
-        int colorAttr;
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            colorAttr = android.R.attr.colorPrimary;
-        } else {
-            //Get colorAccent defined for AppCompat
-            colorAttr = context.getResources().getIdentifier("colorPrimary", "attr", context.getPackageName());
-        }
-        TypedValue outValue = new TypedValue();
-        context.getTheme().resolveAttribute(colorAttr, outValue, true);
-        return outValue.data;
+        return ResourceCache.getThemeColor(context, android.R.attr.colorPrimary, "colorPrimary");
     }
 
     public static int getOnSecondaryColor(Context context) {
-        int colorAttr;
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            colorAttr = R.attr.colorOnSecondary;
-        } else {
-            //Get colorAccent defined for AppCompat
-            colorAttr = context.getResources().getIdentifier("colorOnSecondary", "attr", context.getPackageName());
-        }
-        TypedValue outValue = new TypedValue();
-        context.getTheme().resolveAttribute(colorAttr, outValue, true);
-        return outValue.data;
+        return ResourceCache.getThemeColor(context, R.attr.colorOnSecondary, "colorOnSecondary");
     }
 
     public static int getAccentColor(Context context) {
-        int colorAttr;
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            colorAttr = android.R.attr.colorAccent;
-        } else {
-            //Get colorAccent defined for AppCompat
-            colorAttr = context.getResources().getIdentifier("colorAccent", "attr", context.getPackageName());
-        }
-        TypedValue outValue = new TypedValue();
-        context.getTheme().resolveAttribute(colorAttr, outValue, true);
-        return outValue.data;
+        return ResourceCache.getThemeColor(context, android.R.attr.colorAccent, "colorAccent");
     }
 
     public static int dpToPx(Context context, float dp) {
@@ -97,27 +76,34 @@ public class UiUtils {
         return Math.round(px / Resources.getSystem().getDisplayMetrics().density);
     }
 
+    /**
+     * Returns {@link View#hasOverlappingRendering()}, which is only available from Android 4.1. Before, every view is
+     * assumed to have overlapping rendering, which is the default of the framework.
+     *
+     * @param view view to check.
+     */
+    public static boolean hasOverlappingRendering(View view) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return view.hasOverlappingRendering();
+        }
+        return true;
+    }
+
     /**
      * Fade out animation.
      *
      * @param view view to animate.
      */
-    public static void fadeOutAnim(final View view) {
-        ViewCompat.animate(view).cancel();
-        view.setAlpha(1F);
-        view.setVisibility(VISIBLE);
-        ViewCompat.animate(view)
-                .alpha(0F)
-                .withLayer()
-                .setDuration(view.getContext().getResources().getInteger(R.integer.sd_close_animation_duration))
-                .setInterpolator(new FastOutSlowInInterpolator())
-                .withEndAction(new Runnable() {
-                    @Override
-                    public void run() {
-                        view.setVisibility(GONE);
-                    }
-                })
-                .start();
+    public static void fadeOutAnim(View view) {
+        FadeAnimation fadeAnimation = getFadeAnimation(view);
+        fadeAnimation.cancel();
+        if (view.getVisibility() != VISIBLE) {
+            view.setAlpha(1F);
+            view.setVisibility(VISIBLE);
+        }
+        // Continue from the current alpha when interrupting a fade in
+        fadeAnimation.start(0F, (long) (view.getAlpha()
+                * ResourceCache.getInteger(view.getContext(), R.integer.sd_close_animation_duration)), true);
     }
 
     /**
@@ -125,16 +111,39 @@ public class UiUtils {
      *
      * @param view view to animate.
      */
-    public static void fadeInAnim(final View view) {
-        ViewCompat.animate(view).cancel();
-        view.setAlpha(0);
-        view.setVisibility(VISIBLE);
-        ViewCompat.animate(view)
-                .alpha(1F)
-                .withLayer()
-                .setDuration(view.getContext().getResources().getInteger(R.integer.sd_open_animation_duration))
-                .setInterpolator(new FastOutSlowInInterpolator())
-                .start();
+    public static void fadeInAnim(View view) {
+        FadeAnimation fadeAnimation = getFadeAnimation(view);
+        fadeAnimation.cancel();
+        if (view.getVisibility() != VISIBLE) {
+            view.setAlpha(0);
+            view.setVisibility(VISIBLE);
+        }
+        // Continue from the current alpha when interrupting a fade out
+        fadeAnimation.start(1F, (long) ((1F - view.getAlpha())
+                * ResourceCache.getInteger(view.getContext(), R.integer.sd_open_animation_duration)), false);
+    }
+
+    /**
+     * Cancels the fade animation of the view started by {@link #fadeInAnim(View)} or {@link #fadeOutAnim(View)}, if
+     * any, leaving its alpha and its visibility as they are.
+     *
+     * @param view view to stop animating.
+     */
+    static void cancelFadeAnim(View view) {
+        Object tag = view.getTag(R.id.sd_view_fade);
+        if (tag instanceof FadeAnimation) {
+            ((FadeAnimation) tag).cancel();
+        }
+    }
+
+    private static FadeAnimation getFadeAnimation(View view) {
+        Object tag = view.getTag(R.id.sd_view_fade);
+        if (tag instanceof FadeAnimation) {
+            return (FadeAnimation) tag;
+        }
+        FadeAnimation fadeAnimation = new FadeAnimation(view);
+        view.setTag(R.id.sd_view_fade, fadeAnimation);
+        return fadeAnimation;
     }
 
     /**
@@ -145,10 +154,8 @@ public class UiUtils {
      */
     public static void enlargeAnim(View view, long startOffset) {
         ViewCompat.animate(view).cancel();
-        view.setVisibility(View.VISIBLE);
-        Animation anim = AnimationUtils.loadAnimation(view.getContext(), R.anim.sd_scale_fade_and_translate_in);
-        anim.setStartOffset(startOffset);
-        view.startAnimation(anim);
+        ActionItemAnimator.enlarge(view,
+                ResourceCache.getInteger(view.getContext(), R.integer.sd_open_animation_duration), startOffset);
     }
 
     /**
@@ -157,26 +164,10 @@ public class UiUtils {
      * @param view        view that starts that animation.
      * @param startOffset a delay in time to start the animation
      */
-    public static void shrinkAnim(final View view, long startOffset) {
+    public static void shrinkAnim(View view, long startOffset) {
         ViewCompat.animate(view).cancel();
-        view.setVisibility(View.VISIBLE);
-        Animation anim = AnimationUtils.loadAnimation(view.getContext(), R.anim.sd_scale_fade_and_translate_out);
-        anim.setStartOffset(startOffset);
-        anim.setAnimationListener(new Animation.AnimationListener() {
-            @Override
-            public void onAnimationEnd(Animation animation) {
-                view.setVisibility(View.GONE);
-            }
-
-            @Override
-            public void onAnimationStart(Animation animation) {
-            }
-
-            @Override
-            public void onAnimationRepeat(Animation animation) {
-            }
-        });
-        view.startAnimation(anim);
+        ActionItemAnimator.shrink(view,
+                ResourceCache.getInteger(view.getContext(), R.integer.sd_open_animation_duration), startOffset);
     }
 
     /**
@@ -186,12 +177,23 @@ public class UiUtils {
      * @param removeView true to remove the view when the animation is over, false otherwise.
      */
     public static void shrinkAnim(final View view, final boolean removeView) {
+        shrinkAnim(view, removeView, null);
+    }
+
+    /**
+     * Closing animation.
+     *
+     * @param view       view that starts that animation.
+     * @param removeView true to remove the view when the animation is over, false otherwise.
+     * @param endAction  action to run once the view has been removed or hidden, or null.
+     */
+    public static void shrinkAnim(final View view, final boolean removeView, @Nullable final Runnable endAction) {
         ViewCompat.animate(view).cancel();
         ViewCompat.animate(view)
                 .alpha(0F)
                 .withLayer()
-                .setDuration(view.getContext().getResources().getInteger(R.integer.sd_close_animation_duration))
-                .setInterpolator(new FastOutSlowInInterpolator())
+                .setDuration(ResourceCache.getInteger(view.getContext(), R.integer.sd_close_animation_duration))
+                .setInterpolator(FAST_OUT_SLOW_IN_INTERPOLATOR)
                 .withEndAction(new Runnable() {
                     @Override
                     public void run() {
@@ -203,6 +205,9 @@ public class UiUtils {
                         } else {
                             view.setVisibility(GONE);
                         }
+                        if (endAction != null) {
+                            endAction.run();
+                        }
                     }
                 })
                 .start();
@@ -220,8 +225,8 @@ public class UiUtils {
                 .rotation(angle)
                 .withLayer()
                 .setDuration(animate ?
-                        view.getContext().getResources().getInteger(R.integer.sd_rotate_animation_duration) : 0)
-                .setInterpolator(new FastOutSlowInInterpolator())
+                        ResourceCache.getInteger(view.getContext(), R.integer.sd_rotate_animation_duration) : 0)
+                .setInterpolator(FAST_OUT_SLOW_IN_INTERPOLATOR)
                 .start();
     }
 
@@ -237,8 +242,8 @@ public class UiUtils {
                 .rotation(0.0F)
                 .withLayer()
                 .setDuration(animate ?
-                        view.getContext().getResources().getInteger(R.integer.sd_rotate_animation_duration) : 0)
-                .setInterpolator(new FastOutSlowInInterpolator())
+                        ResourceCache.getInteger(view.getContext(), R.integer.sd_rotate_animation_duration) : 0)
+                .setInterpolator(FAST_OUT_SLOW_IN_INTERPOLATOR)
                 .start();
     }
 
@@ -350,4 +355,71 @@ public class UiUtils {
         }
         return cropped;
     }
+
+    /**
+     * Alpha animation of a view, kept in a tag of the view and reused by the next fades, like the animations of
+     * {@link ActionItemAnimator}. The view is rendered in a hardware layer only while its alpha changes and only if it
+     * has overlapping rendering, and the layer is released when the animation ends or is canceled.
+     */
+    private static final class FadeAnimation extends AnimatorListenerAdapter
+            implements ValueAnimator.AnimatorUpdateListener {
+        private final View mView;
+        private final ValueAnimator mAnimator = ValueAnimator.ofFloat(0F, 1F);
+        private float mFromAlpha;
+        private float mToAlpha;
+        private boolean mHideOnEnd;
+        private boolean mCanceled;
+        private boolean mLayerEnabled;
+
+        FadeAnimation(View view) {
+            mView = view;
+            mAnimator.setInterpolator(FAST_OUT_SLOW_IN_INTERPOLATOR);
+            mAnimator.addUpdateListener(this);
+            mAnimator.addListener(this);
+        }
+
+        void start(float toAlpha, long duration, boolean hideOnEnd) {
+            mAnimator.cancel();
+            mFromAlpha = mView.getAlpha();
+            mToAlpha = toAlpha;
+            mHideOnEnd = hideOnEnd;
+            mAnimator.setDuration(duration);
+            mAnimator.start();
+        }
+
+        void cancel() {
+            mAnimator.cancel();
+        }
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            mView.setAlpha(mFromAlpha + (mToAlpha - mFromAlpha) * animation.getAnimatedFraction());
+        }
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            mCanceled = false;
+            if (mFromAlpha != mToAlpha && hasOverlappingRendering(mView)
+                    && mView.getLayerType() == View.LAYER_TYPE_NONE) {
+                mLayerEnabled = true;
+                mView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            }
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animation) {
+            mCanceled = true;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (mLayerEnabled) {
+                mLayerEnabled = false;
+                mView.setLayerType(View.LAYER_TYPE_NONE, null);
+            }
+            if (mHideOnEnd && !mCanceled) {
+                mView.setVisibility(GONE);
+            }
+        }
+    }
 }
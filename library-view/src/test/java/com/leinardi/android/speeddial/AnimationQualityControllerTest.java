@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.os.Looper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class AnimationQualityControllerTest {
+    @Test
+    public void overlappingSamples_areMeasuredSeparately() {
+        AnimationQualityController controller = new AnimationQualityController(RuntimeEnvironment.getApplication());
+
+        AnimationQualityController.Measurement first = controller.beginSample();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(100));
+        AnimationQualityController.Measurement second = controller.beginSample();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(100));
+        assertNotNull(first);
+        assertNotNull(second);
+        controller.endSample(first);
+        controller.endSample(second);
+
+        assertEquals(2, controller.getHistory().size());
+        assertTrue(controller.getHistory().get(0).getFrameCount() > controller.getHistory().get(1).getFrameCount());
+    }
+
+    @Test
+    public void canceledSample_isNotRecorded() {
+        AnimationQualityController controller = new AnimationQualityController(RuntimeEnvironment.getApplication());
+
+        AnimationQualityController.Measurement measurement = controller.beginSample();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(100));
+        assertNotNull(measurement);
+        controller.cancelSample(measurement);
+        controller.endSample(measurement);
+
+        assertEquals(0, controller.getHistory().size());
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.List;
+
+/**
+ * Shared fixture of the {@link SpeedDialView} tests: a themed context, a view created with it and helpers to build
+ * and inspect action items.
+ */
+@RunWith(RobolectricTestRunner.class)
+public abstract class BaseSpeedDialViewTest {
+    protected Context mContext;
+    protected SpeedDialView mSpeedDialView;
+
+    @Before
+    public void setUpSpeedDialView() {
+        mContext = new ContextThemeWrapper(RuntimeEnvironment.getApplication(),
+                com.google.android.material.R.style.Theme_MaterialComponents_Light);
+        mSpeedDialView = createSpeedDialView();
+    }
+
+    protected SpeedDialView createSpeedDialView() {
+        return new SpeedDialView(mContext);
+    }
+
+    protected static SpeedDialActionItem createActionItem(int id) {
+        return createActionItem(id, "Item " + id);
+    }
+
+    protected static SpeedDialActionItem createActionItem(int id, String label) {
+        return new SpeedDialActionItem.Builder(id, android.R.drawable.ic_input_add)
+                .setLabel(label)
+                .create();
+    }
+
+    protected static int[] getIds(List<SpeedDialActionItem> actionItems) {
+        int[] ids = new int[actionItems.size()];
+        for (int i = 0; i < actionItems.size(); i++) {
+            ids[i] = actionItems.get(i).getId();
+        }
+        return ids;
+    }
+}
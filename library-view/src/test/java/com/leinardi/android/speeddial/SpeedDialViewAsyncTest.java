@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.os.Looper;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+public class SpeedDialViewAsyncTest extends BaseSpeedDialViewTest {
+    private static final long TIMEOUT_MS = 5000;
+
+    @Test
+    public void addActionItemAsync_calledTwice_appliesBothInOrder() throws InterruptedException {
+        CountingListener firstListener = new CountingListener();
+        mSpeedDialView.addActionItemAsync(createActionItem(1), firstListener);
+        CountingListener secondListener = new CountingListener();
+        mSpeedDialView.addActionItemAsync(createActionItem(2), secondListener);
+
+        awaitCalled(secondListener);
+
+        assertEquals(1, firstListener.mCount);
+        assertArrayEquals(new int[]{1, 2}, getIds(mSpeedDialView.getActionItems()));
+    }
+
+    @Test
+    public void addActionItemAsync_afterSetActionItemsAsync_isAppliedAfterTheList() throws InterruptedException {
+        mSpeedDialView.setActionItemsAsync(Arrays.asList(createActionItem(1), createActionItem(2)), null);
+        CountingListener listener = new CountingListener();
+        mSpeedDialView.addActionItemAsync(createActionItem(3), listener);
+
+        awaitCalled(listener);
+
+        assertArrayEquals(new int[]{1, 2, 3}, getIds(mSpeedDialView.getActionItems()));
+        assertFalse(mSpeedDialView.isBatchUpdating());
+    }
+
+    @Test
+    public void setActionItemsAsync_thenSyncChange_dropsStaleResult() throws InterruptedException {
+        CountingListener staleListener = new CountingListener();
+        mSpeedDialView.setActionItemsAsync(Arrays.asList(createActionItem(1), createActionItem(2)), staleListener);
+        mSpeedDialView.setActionItems(Collections.singletonList(createActionItem(3)));
+        CountingListener listener = new CountingListener();
+        mSpeedDialView.addActionItemAsync(createActionItem(4), listener);
+
+        // The results are delivered in order, so the stale one has been handled when the last one is applied
+        awaitCalled(listener);
+
+        assertEquals(0, staleListener.mCount);
+        assertArrayEquals(new int[]{3, 4}, getIds(mSpeedDialView.getActionItems()));
+    }
+
+    @Test
+    public void setActionItemsAsync_calledTwice_appliesOnlyTheLatestList() throws InterruptedException {
+        CountingListener staleListener = new CountingListener();
+        mSpeedDialView.setActionItemsAsync(Collections.singletonList(createActionItem(1)), staleListener);
+        CountingListener listener = new CountingListener();
+        mSpeedDialView.setActionItemsAsync(Arrays.asList(createActionItem(2), createActionItem(3)), listener);
+
+        awaitCalled(listener);
+
+        assertEquals(0, staleListener.mCount);
+        assertArrayEquals(new int[]{2, 3}, getIds(mSpeedDialView.getActionItems()));
+    }
+
+    /**
+     * Runs the main looper until the listener is called, while the views are created on the background thread.
+     */
+    private static void awaitCalled(CountingListener listener) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (listener.mCount == 0) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("The asynchronous inflation did not complete");
+            }
+            Thread.sleep(10);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+    }
+
+    private static class CountingListener implements SpeedDialView.OnActionItemsInflatedListener {
+        private int mCount;
+
+        @Override
+        public void onActionItemsInflated() {
+            mCount++;
+        }
+    }
+}
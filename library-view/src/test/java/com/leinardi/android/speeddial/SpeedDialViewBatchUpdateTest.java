@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.os.Looper;
+import android.view.View;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+public class SpeedDialViewBatchUpdateTest extends BaseSpeedDialViewTest {
+    @Test
+    public void batchUpdate_appliesAllChangesOnCommit() {
+        mSpeedDialView.addActionItem(createActionItem(1));
+
+        mSpeedDialView.beginBatchUpdate();
+        mSpeedDialView.addActionItem(createActionItem(2));
+        mSpeedDialView.beginBatchUpdate();
+        mSpeedDialView.addActionItem(createActionItem(3), 0);
+        mSpeedDialView.commitBatchUpdate();
+        assertTrue(mSpeedDialView.isBatchUpdating());
+        mSpeedDialView.removeActionItemById(1);
+        mSpeedDialView.moveActionItem(2, 0);
+        mSpeedDialView.commitBatchUpdate();
+
+        assertFalse(mSpeedDialView.isBatchUpdating());
+        assertArrayEquals(new int[]{2, 3}, getIds(mSpeedDialView.getActionItems()));
+    }
+
+    @Test
+    public void commitBatchUpdate_whileOpen_animatesAddedAndRemovedItemsTogether() {
+        mSpeedDialView.addActionItem(createActionItem(1));
+        FabWithLabelView removedView = mSpeedDialView.addActionItem(createActionItem(2));
+        mSpeedDialView.open(false);
+
+        mSpeedDialView.beginBatchUpdate();
+        FabWithLabelView addedView = mSpeedDialView.addActionItem(createActionItem(3));
+        mSpeedDialView.removeActionItemById(2);
+        mSpeedDialView.commitBatchUpdate();
+
+        assertSame(mSpeedDialView, removedView.getParent());
+        assertEquals(View.VISIBLE, addedView.getVisibility());
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(1));
+        assertNull(removedView.getParent());
+        assertEquals(1F, addedView.getFab().getAlpha(), 0F);
+        assertArrayEquals(new int[]{1, 3}, getIds(mSpeedDialView.getActionItems()));
+    }
+
+    @Test
+    public void close_duringBatchAnimation_removesTheExitingItems() {
+        mSpeedDialView.addActionItem(createActionItem(1));
+        FabWithLabelView removedView = mSpeedDialView.addActionItem(createActionItem(2));
+        mSpeedDialView.open(false);
+        mSpeedDialView.beginBatchUpdate();
+        mSpeedDialView.removeActionItemById(2);
+        mSpeedDialView.commitBatchUpdate();
+
+        mSpeedDialView.close(false);
+
+        assertNull(removedView.getParent());
+    }
+
+    @Test
+    public void commitBatchUpdate_withoutBegin_throws() {
+        try {
+            mSpeedDialView.commitBatchUpdate();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+            assertFalse(mSpeedDialView.isBatchUpdating());
+        }
+    }
+}
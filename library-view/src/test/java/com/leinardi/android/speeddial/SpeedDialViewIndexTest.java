@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+public class SpeedDialViewIndexTest extends BaseSpeedDialViewTest {
+    @Test
+    public void replaceActionItem_keepsThePositionOfEveryItem() {
+        mSpeedDialView.addActionItem(createActionItem(1));
+        mSpeedDialView.addActionItem(createActionItem(2));
+        FabWithLabelView oldView = mSpeedDialView.addActionItem(createActionItem(3));
+        mSpeedDialView.addActionItem(createActionItem(4));
+        mSpeedDialView.addActionItem(createActionItem(5));
+        int layoutPosition = mSpeedDialView.indexOfChild(oldView);
+
+        FabWithLabelView newView = mSpeedDialView.replaceActionItem(createActionItem(6), 2);
+
+        assertArrayEquals(new int[]{1, 2, 6, 4, 5}, getIds(mSpeedDialView.getActionItems()));
+        assertEquals(-1, mSpeedDialView.indexOfActionItem(3));
+        assertEquals(2, mSpeedDialView.indexOfActionItem(6));
+        assertEquals(4, mSpeedDialView.indexOfActionItem(5));
+        assertNotSame(oldView, newView);
+        assertNull(oldView.getParent());
+        assertEquals(layoutPosition, mSpeedDialView.indexOfChild(newView));
+    }
+
+    @Test
+    public void replaceActionItem_withTheIdOfAnotherItem_removesIt() {
+        for (int id = 1; id <= 4; id++) {
+            mSpeedDialView.addActionItem(createActionItem(id));
+        }
+
+        mSpeedDialView.replaceActionItem(createActionItem(1, "Replaced"), 2);
+
+        assertArrayEquals(new int[]{2, 1, 4}, getIds(mSpeedDialView.getActionItems()));
+        assertEquals(1, mSpeedDialView.indexOfActionItem(1));
+        assertEquals(2, mSpeedDialView.indexOfActionItem(4));
+    }
+
+    @Test
+    public void moveActionItem_updatesThePositionsOfTheShiftedItems() {
+        for (int id = 1; id <= 5; id++) {
+            mSpeedDialView.addActionItem(createActionItem(id));
+        }
+
+        mSpeedDialView.moveActionItem(4, 1);
+
+        assertArrayEquals(new int[]{1, 4, 2, 3, 5}, getIds(mSpeedDialView.getActionItems()));
+        for (int position = 0; position < 5; position++) {
+            assertEquals(position, mSpeedDialView.indexOfActionItem(
+                    mSpeedDialView.getActionItems().get(position).getId()));
+        }
+
+        mSpeedDialView.moveActionItem(4, 3);
+
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5}, getIds(mSpeedDialView.getActionItems()));
+        assertEquals(3, mSpeedDialView.indexOfActionItem(4));
+        assertEquals(1, mSpeedDialView.indexOfActionItem(2));
+    }
+
+    @Test
+    public void moveActionItem_whileVirtualized_updatesThePositionsOfTheShiftedItems() {
+        mSpeedDialView.setVirtualized(true);
+        for (int id = 1; id <= 4; id++) {
+            mSpeedDialView.addActionItem(createActionItem(id));
+        }
+
+        mSpeedDialView.moveActionItem(1, 3);
+
+        assertArrayEquals(new int[]{2, 3, 4, 1}, getIds(mSpeedDialView.getActionItems()));
+        assertEquals(0, mSpeedDialView.indexOfActionItem(2));
+        assertEquals(3, mSpeedDialView.indexOfActionItem(1));
+        assertNull(mSpeedDialView.replaceActionItem(createActionItem(5), 1));
+        assertEquals(1, mSpeedDialView.indexOfActionItem(5));
+        assertEquals(-1, mSpeedDialView.indexOfActionItem(3));
+    }
+}
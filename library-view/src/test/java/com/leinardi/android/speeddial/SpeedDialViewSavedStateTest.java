@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SpeedDialViewSavedStateTest extends BaseSpeedDialViewTest {
+    @Test
+    public void roundTrip_restoresItemsAndState() {
+        mSpeedDialView.addActionItem(createActionItem(1, "A"));
+        mSpeedDialView.addActionItem(createActionItem(2, "B"));
+        mSpeedDialView.setMainFabAnimationRotateAngle(90F);
+        mSpeedDialView.open(false);
+
+        SpeedDialView restoredView = createSpeedDialView();
+        restoredView.onRestoreInstanceState(parcel(mSpeedDialView.onSaveInstanceState()));
+
+        List<SpeedDialActionItem> actionItems = restoredView.getActionItems();
+        assertEquals(2, actionItems.size());
+        assertEquals(1, actionItems.get(0).getId());
+        assertEquals("A", actionItems.get(0).getLabel(mContext));
+        assertEquals(2, actionItems.get(1).getId());
+        assertEquals("B", actionItems.get(1).getLabel(mContext));
+        assertEquals(90F, restoredView.getMainFabAnimationRotateAngle(), 0F);
+        assertTrue(restoredView.isOpen());
+    }
+
+    @Test
+    public void roundTrip_keepsAttachedItemWithSavedContent() {
+        mSpeedDialView.addActionItem(createActionItem(1, "A"));
+        Parcelable state = parcel(mSpeedDialView.onSaveInstanceState());
+
+        SpeedDialView restoredView = createSpeedDialView();
+        SpeedDialActionItem attachedActionItem = createActionItem(1, "A");
+        FabWithLabelView attachedView = restoredView.addActionItem(attachedActionItem);
+        restoredView.onRestoreInstanceState(state);
+
+        assertSame(attachedActionItem, restoredView.getActionItems().get(0));
+        assertSame(attachedActionItem, attachedView.getSpeedDialActionItem());
+        assertSame(restoredView, attachedView.getParent());
+    }
+
+    @Test
+    public void roundTrip_restoresSavedItemWhenAttachedContentChanged() {
+        mSpeedDialView.addActionItem(createActionItem(1, "Saved"));
+        Parcelable state = parcel(mSpeedDialView.onSaveInstanceState());
+
+        SpeedDialView restoredView = createSpeedDialView();
+        restoredView.addActionItem(createActionItem(1, "Attached"));
+        restoredView.onRestoreInstanceState(state);
+
+        List<SpeedDialActionItem> actionItems = restoredView.getActionItems();
+        assertEquals(1, actionItems.size());
+        assertEquals("Saved", actionItems.get(0).getLabel(mContext));
+    }
+
+    @Test
+    public void roundTrip_keepsAttachedItemsMissingFromSavedState() {
+        mSpeedDialView.addActionItem(createActionItem(1, "A"));
+        mSpeedDialView.addActionItem(createActionItem(2, "B"));
+        Parcelable state = parcel(mSpeedDialView.onSaveInstanceState());
+
+        SpeedDialView restoredView = createSpeedDialView();
+        SpeedDialActionItem extraActionItem = createActionItem(3, "Extra");
+        restoredView.addActionItem(extraActionItem);
+        restoredView.addActionItem(createActionItem(2, "B"));
+        restoredView.onRestoreInstanceState(state);
+
+        List<SpeedDialActionItem> actionItems = restoredView.getActionItems();
+        assertArrayEquals(new int[]{3, 2, 1}, getIds(actionItems));
+        assertSame(extraActionItem, actionItems.get(0));
+        assertEquals("A", actionItems.get(2).getLabel(mContext));
+    }
+
+    @Test
+    public void roundTrip_afterRestore_keepsItemsSavedByIdAndHash() {
+        mSpeedDialView.addActionItem(createActionItem(1, "A"));
+        Parcelable state = parcel(mSpeedDialView.onSaveInstanceState());
+        SpeedDialView restoredView = createSpeedDialView();
+        restoredView.addActionItem(createActionItem(1, "A"));
+        restoredView.onRestoreInstanceState(state);
+        // Attached on restore, so only its ID and hash are saved now
+        Parcelable secondState = parcel(restoredView.onSaveInstanceState());
+
+        SpeedDialView secondRestoredView = createSpeedDialView();
+        SpeedDialActionItem relocalizedActionItem = createActionItem(1, "A, in another locale");
+        secondRestoredView.addActionItem(relocalizedActionItem);
+        secondRestoredView.onRestoreInstanceState(secondState);
+
+        assertSame(relocalizedActionItem, secondRestoredView.getActionItems().get(0));
+    }
+
+    @Test
+    public void resolveRestoredActionItem_prefersAttachedItemWithSameHash() {
+        SpeedDialActionItem attached = createActionItem(1, "A");
+        SpeedDialActionItem saved = createActionItem(1, "A");
+
+        assertSame(attached, SpeedDialView.resolveRestoredActionItem(attached, saved.getContentHash(), saved));
+    }
+
+    @Test
+    public void resolveRestoredActionItem_prefersSavedItemWhenHashDiffers() {
+        SpeedDialActionItem attached = createActionItem(1, "Attached");
+        SpeedDialActionItem saved = createActionItem(1, "Saved");
+
+        assertSame(saved, SpeedDialView.resolveRestoredActionItem(attached, saved.getContentHash(), saved));
+    }
+
+    @Test
+    public void resolveRestoredActionItem_withoutSavedItem_keepsAttachedItem() {
+        SpeedDialActionItem attached = createActionItem(1, "Changed");
+        int savedContentHash = createActionItem(1, "A").getContentHash();
+
+        assertSame(attached, SpeedDialView.resolveRestoredActionItem(attached, savedContentHash, null));
+        assertNull(SpeedDialView.resolveRestoredActionItem(null, savedContentHash, null));
+    }
+
+    private static Parcelable parcel(Parcelable state) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return SpeedDialView.SavedState.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+}
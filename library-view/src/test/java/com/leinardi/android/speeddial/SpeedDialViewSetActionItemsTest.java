@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class SpeedDialViewSetActionItemsTest extends BaseSpeedDialViewTest {
+    @Test
+    public void setActionItems_insertsNewItemsAtTheirPosition() {
+        mSpeedDialView.setActionItems(Arrays.asList(createActionItem(1), createActionItem(3)));
+
+        mSpeedDialView.setActionItems(Arrays.asList(createActionItem(1), createActionItem(2), createActionItem(3),
+                createActionItem(4)));
+
+        assertArrayEquals(new int[]{1, 2, 3, 4}, getIds(mSpeedDialView.getActionItems()));
+        assertEquals(2, mSpeedDialView.indexOfActionItem(3));
+    }
+
+    @Test
+    public void setActionItems_movesExistingItemsWithoutRecreatingTheirViews() {
+        FabWithLabelView view1 = mSpeedDialView.addActionItem(createActionItem(1));
+        FabWithLabelView view2 = mSpeedDialView.addActionItem(createActionItem(2));
+        FabWithLabelView view3 = mSpeedDialView.addActionItem(createActionItem(3));
+
+        mSpeedDialView.setActionItems(Arrays.asList(createActionItem(3), createActionItem(1), createActionItem(2)));
+
+        assertArrayEquals(new int[]{3, 1, 2}, getIds(mSpeedDialView.getActionItems()));
+        assertSame(mSpeedDialView, view1.getParent());
+        assertSame(mSpeedDialView, view2.getParent());
+        assertSame(mSpeedDialView, view3.getParent());
+        assertEquals(0, mSpeedDialView.indexOfActionItem(3));
+        assertEquals(2, mSpeedDialView.indexOfActionItem(2));
+    }
+
+    @Test
+    public void setActionItems_rebindsChangedItemsInPlace() {
+        FabWithLabelView view = mSpeedDialView.addActionItem(createActionItem(1, "A"));
+        SpeedDialActionItem changedActionItem = createActionItem(1, "Changed");
+
+        mSpeedDialView.setActionItems(Arrays.asList(changedActionItem, createActionItem(2)));
+
+        assertSame(changedActionItem, view.getSpeedDialActionItem());
+        assertSame(changedActionItem, mSpeedDialView.getActionItems().get(0));
+        assertSame(mSpeedDialView, view.getParent());
+    }
+
+    @Test
+    public void setActionItems_removesMissingItems() {
+        mSpeedDialView.setActionItems(Arrays.asList(createActionItem(1), createActionItem(2), createActionItem(3)));
+
+        mSpeedDialView.setActionItems(Arrays.asList(createActionItem(3), createActionItem(1)));
+
+        assertArrayEquals(new int[]{3, 1}, getIds(mSpeedDialView.getActionItems()));
+        assertEquals(-1, mSpeedDialView.indexOfActionItem(2));
+        assertFalse(mSpeedDialView.isBatchUpdating());
+    }
+
+    @Test
+    public void setActionItems_ignoresDuplicatedIds() {
+        SpeedDialActionItem first = createActionItem(1, "A");
+
+        mSpeedDialView.setActionItems(Arrays.asList(first, createActionItem(2), createActionItem(1, "A2")));
+
+        assertArrayEquals(new int[]{1, 2}, getIds(mSpeedDialView.getActionItems()));
+        assertSame(first, mSpeedDialView.getActionItems().get(0));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 Roberto Leinardi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.leinardi.android.speeddial;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SpeedDialViewVirtualizedTest extends BaseSpeedDialViewTest {
+    @Test
+    public void setActionItems_whileVirtualized_insertsMovesAndRemoves() {
+        mSpeedDialView.setVirtualized(true);
+        mSpeedDialView.setActionItems(Arrays.asList(createActionItem(1), createActionItem(2), createActionItem(3)));
+
+        mSpeedDialView.setActionItems(Arrays.asList(createActionItem(3), createActionItem(4), createActionItem(1)));
+
+        assertArrayEquals(new int[]{3, 4, 1}, getIds(mSpeedDialView.getActionItems()));
+        assertEquals(1, mSpeedDialView.indexOfActionItem(4));
+        assertEquals(-1, mSpeedDialView.indexOfActionItem(2));
+    }
+
+    @Test
+    public void setVirtualized_keepsTheItemsAndTheirOrder() {
+        mSpeedDialView.setActionItems(Arrays.asList(createActionItem(1), createActionItem(2)));
+
+        mSpeedDialView.setVirtualized(true);
+        mSpeedDialView.moveActionItem(2, 0);
+        assertArrayEquals(new int[]{2, 1}, getIds(mSpeedDialView.getActionItems()));
+
+        mSpeedDialView.setVirtualized(false);
+        assertArrayEquals(new int[]{2, 1}, getIds(mSpeedDialView.getActionItems()));
+        assertEquals(0, mSpeedDialView.indexOfActionItem(2));
+    }
+}